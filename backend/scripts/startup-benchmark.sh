@@ -0,0 +1,50 @@
+#!/bin/sh
+# Builds the default (Dockerfile) and the fast-startup (Dockerfile.fast-startup) images and reports, for each, the
+# time from `docker run` until the first combination search succeeds. Needs docker, curl and GNU date.
+# Usage: startup-benchmark.sh [runs per image]
+set -eu
+
+runs=${1:-5}
+root=$(cd "$(dirname "$0")/../.." && pwd)
+port=${BENCHMARK_PORT:-18081}
+request='{"target": 150, "invoices": [{"id": "INV-001", "amount": 100}, {"id": "INV-002", "amount": 50}]}'
+
+now_ms() {
+        date +%s%3N
+}
+
+time_to_first_request() {
+        started=$(now_ms)
+        container=$(docker run -d --rm -p "$port:8080" "$1")
+        until curl -fs -o /dev/null -X POST "http://localhost:$port/api/combinations" \
+                -H 'Content-Type: application/json' -d "$request"; do
+                if [ $(($(now_ms) - started)) -gt 120000 ]; then
+                        docker stop "$container" >/dev/null
+                        echo "$1 did not serve a request within 120 seconds." >&2
+                        exit 1
+                fi
+                sleep 0.05
+        done
+        echo $(($(now_ms) - started))
+        docker stop -t 10 "$container" >/dev/null
+}
+
+echo "Building images..."
+docker build -q -f "$root/backend/Dockerfile" -t invoice-combination-finder:default "$root" >/dev/null
+docker build -q -f "$root/backend/Dockerfile.fast-startup" -t invoice-combination-finder:fast-startup "$root" >/dev/null
+
+printf '%-14s %5s %10s %10s %10s\n' image runs min_ms median_ms mean_ms
+for variant in default fast-startup; do
+        samples=""
+        run=0
+        while [ "$run" -lt "$runs" ]; do
+                samples="$samples $(time_to_first_request "invoice-combination-finder:$variant")"
+                run=$((run + 1))
+        done
+        echo "$samples" | tr ' ' '\n' | grep . | sort -n | awk -v image="$variant" '
+                { value[NR] = $1; sum += $1 }
+                END {
+                        median = NR % 2 ? value[(NR + 1) / 2] : (value[NR / 2] + value[NR / 2 + 1]) / 2
+                        printf "%-14s %5d %10d %10d %10d\n", image, NR, value[1], median, sum / NR
+                }'
+done
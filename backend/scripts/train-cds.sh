@@ -0,0 +1,54 @@
+#!/bin/sh
+# Starts the application with -XX:ArchiveClassesAtExit, sends a representative request of every kind so that the
+# classes used to serve them are loaded, and stops the application again, which writes the class-data-sharing
+# archive. Usage: train-cds.sh <archive> <sample.xlsx> <java arguments...>
+set -eu
+
+archive=$1
+sample_xlsx=$2
+shift 2
+port=${TRAINING_PORT:-18080}
+base="http://localhost:$port/api/combinations"
+workdir=$(mktemp -d)
+
+java -XX:ArchiveClassesAtExit="$archive" "$@" --server.port="$port" &
+pid=$!
+trap 'kill "$pid" 2>/dev/null || true; rm -rf "$workdir"' EXIT
+
+search='{"target": 150, "minInvoices": 1, "maxInvoices": 3, "requiredInvoiceIds": ["INV-003"], "invoices": [
+  {"id": "INV-001", "amount": 100}, {"id": "INV-002", "amount": 200},
+  {"id": "INV-003", "amount": 50}, {"id": "INV-004", "amount": 100.00}]}'
+printf 'Invoice ID;Amount\nINV-001;100\nINV-002;50,25\n"INV-003";99,75\n' > "$workdir/invoices.csv"
+
+post_json() {
+        curl -fsS -o /dev/null -X POST "$base$1" -H 'Content-Type: application/json' -d "$search"
+}
+
+attempts=0
+until post_json "" 2>/dev/null; do
+        attempts=$((attempts + 1))
+        if [ "$attempts" -ge 120 ] || ! kill -0 "$pid" 2>/dev/null; then
+                echo "Application did not become ready for training." >&2
+                exit 1
+        fi
+        sleep 0.5
+done
+
+for round in 1 2 3; do
+        post_json ""
+        post_json "/stream"
+        post_json "/first?timeBudgetMs=500"
+        post_json "/estimate"
+        post_json "/pages?pageSize=1"
+        post_json "/export"
+        curl -fsS -o /dev/null -F target=150 -F "file=@$sample_xlsx" -F 'sheets=*' "$base/upload"
+        curl -fsS -o /dev/null -F target=150 -F "file=@$workdir/invoices.csv" --form-string 'delimiter=;' \
+                --form-string 'decimalSeparator=,' "$base/upload/csv"
+        # A rejected request, so the validation and error handling paths are trained as well.
+        curl -sS -o /dev/null -X POST "$base" -H 'Content-Type: application/json' -d '{"target": 0, "invoices": []}'
+done
+
+kill -TERM "$pid"
+wait "$pid" || true
+test -s "$archive"
+echo "Wrote class-data-sharing archive $archive."
@@ -1,64 +1,180 @@
 package com.invoicecombinationfinder.backend.controller;
 
+import com.invoicecombinationfinder.backend.dto.CombinationPageResponse;
 import com.invoicecombinationfinder.backend.dto.CombinationRequest;
 import com.invoicecombinationfinder.backend.dto.CombinationResponse;
+import com.invoicecombinationfinder.backend.dto.FileParseResponse;
+import com.invoicecombinationfinder.backend.dto.FirstMatchResponse;
+import com.invoicecombinationfinder.backend.dto.SearchEstimateResponse;
+import com.invoicecombinationfinder.backend.dto.UploadCombinationResponse;
 import com.invoicecombinationfinder.backend.service.CombinationFilters;
+import com.invoicecombinationfinder.backend.service.CombinationPage;
+import com.invoicecombinationfinder.backend.service.CombinationPagingService;
 import com.invoicecombinationfinder.backend.service.CombinationResult;
 import com.invoicecombinationfinder.backend.service.CombinationService;
-import com.invoicecombinationfinder.backend.service.ExcelInvoiceParser;
+import com.invoicecombinationfinder.backend.service.DelimitedInvoiceParser;
+import com.invoicecombinationfinder.backend.service.ExcelUploadService;
+import com.invoicecombinationfinder.backend.service.FirstMatchResult;
+import com.invoicecombinationfinder.backend.service.JsonInvoiceStreamParser;
+import com.invoicecombinationfinder.backend.service.ParsedUpload;
+import com.invoicecombinationfinder.backend.service.SearchAssessment;
+import com.invoicecombinationfinder.backend.service.StreamedCombinationRequest;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/combinations")
 public class CombinationController {
 
+        private static final long MAX_FIRST_MATCH_BUDGET_MS = 60_000;
+
         private final CombinationService combinationService;
-        private final ExcelInvoiceParser excelInvoiceParser;
+        private final ExcelUploadService excelUploadService;
+        private final CombinationPagingService combinationPagingService;
+        private final JsonInvoiceStreamParser jsonInvoiceStreamParser;
+        private final DelimitedInvoiceParser delimitedInvoiceParser;
+        private final long searchTimeoutMillis;
 
-        public CombinationController(CombinationService combinationService, ExcelInvoiceParser excelInvoiceParser) {
+        public CombinationController(CombinationService combinationService,
+                                     ExcelUploadService excelUploadService,
+                                     CombinationPagingService combinationPagingService,
+                                     JsonInvoiceStreamParser jsonInvoiceStreamParser,
+                                     DelimitedInvoiceParser delimitedInvoiceParser,
+                                     @Value("${combinations.search.timeout:5m}") Duration searchTimeout) {
+                if (searchTimeout.isNegative()) {
+                        throw new IllegalArgumentException("Search timeout must not be negative.");
+                }
                 this.combinationService = combinationService;
-                this.excelInvoiceParser = excelInvoiceParser;
+                this.excelUploadService = excelUploadService;
+                this.combinationPagingService = combinationPagingService;
+                this.jsonInvoiceStreamParser = jsonInvoiceStreamParser;
+                this.delimitedInvoiceParser = delimitedInvoiceParser;
+                // Zero disables the timeout; a negative value tells the container not to time the request out.
+                this.searchTimeoutMillis = searchTimeout.isZero() ? -1 : searchTimeout.toMillis();
         }
 
         @PostMapping
-        public CombinationResponse findInvoiceCombinations(@Valid @RequestBody CombinationRequest request) {
+        public DeferredResult<CombinationResponse> findInvoiceCombinations(@Valid @RequestBody CombinationRequest request) {
                 CombinationFilters filters = buildFilters(request.minInvoices(), request.maxInvoices(), request.requiredInvoiceIds());
-                CombinationResult result = combinationService.findCombinations(request.target(), request.invoices(), filters);
-                return buildResponse(result);
+                return defer(combinationService.findCombinationsAsync(request.target(), request.invoices(), filters),
+                        this::buildResponse);
+        }
+
+        @PostMapping(path = "/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+        public DeferredResult<CombinationResponse> findInvoiceCombinationsFromStream(InputStream body) {
+                StreamedCombinationRequest request = jsonInvoiceStreamParser.parse(body);
+                return defer(combinationService.findCombinationsAsync(request), this::buildResponse);
         }
 
         @PostMapping(path = "/upload", consumes = org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE)
-        public CombinationResponse findInvoiceCombinationsFromExcel(@RequestParam("target") BigDecimal target,
-                                                                    @RequestParam("file") MultipartFile file,
-                                                                    @RequestParam(value = "minInvoices", required = false) Integer minInvoices,
-                                                                    @RequestParam(value = "maxInvoices", required = false) Integer maxInvoices,
-                                                                    @RequestParam(value = "requiredIds", required = false) List<String> requiredIds) {
-                List<com.invoicecombinationfinder.backend.dto.InvoiceInput> invoices = excelInvoiceParser.parse(file);
+        public DeferredResult<UploadCombinationResponse> findInvoiceCombinationsFromExcel(@RequestParam("target") BigDecimal target,
+                                                                          @RequestParam("file") List<MultipartFile> files,
+                                                                          @RequestParam(value = "sheets", required = false) List<String> sheets,
+                                                                          @RequestParam(value = "minInvoices", required = false) Integer minInvoices,
+                                                                          @RequestParam(value = "maxInvoices", required = false) Integer maxInvoices,
+                                                                          @RequestParam(value = "requiredIds", required = false) List<String> requiredIds) {
+                ParsedUpload upload = excelUploadService.parse(files, sheets);
                 CombinationFilters filters = buildFilters(minInvoices, maxInvoices, requiredIds);
-                CombinationResult result = combinationService.findCombinations(target, invoices, filters);
-                return buildResponse(result);
+                List<FileParseResponse> fileReports = upload.files().stream()
+                        .map(report -> new FileParseResponse(report.filename(), report.sheets(), report.invoiceCount(), report.parseMillis()))
+                        .toList();
+                return defer(combinationService.findCombinationsAsync(target, upload.invoices(), filters),
+                        result -> new UploadCombinationResponse(result.combinations(),
+                                toAmounts(result.invoiceById()),
+                                result.truncated(),
+                                fileReports));
+        }
+
+        @PostMapping(path = "/upload/csv", consumes = org.springframework.http.MediaType.MULTIPART_FORM_DATA_VALUE)
+        public DeferredResult<CombinationResponse> findInvoiceCombinationsFromCsv(@RequestParam("target") BigDecimal target,
+                                                                  @RequestParam("file") MultipartFile file,
+                                                                  @RequestParam(value = "delimiter", required = false) String delimiter,
+                                                                  @RequestParam(value = "decimalSeparator", defaultValue = ".") String decimalSeparator,
+                                                                  @RequestParam(value = "minInvoices", required = false) Integer minInvoices,
+                                                                  @RequestParam(value = "maxInvoices", required = false) Integer maxInvoices,
+                                                                  @RequestParam(value = "requiredIds", required = false) List<String> requiredIds) {
+                List<com.invoicecombinationfinder.backend.dto.InvoiceInput> invoices = delimitedInvoiceParser.parse(file,
+                        delimiter == null ? null : toDelimiter(delimiter),
+                        toSingleCharacter(decimalSeparator, "Decimal separator"));
+                CombinationFilters filters = buildFilters(minInvoices, maxInvoices, requiredIds);
+                return defer(combinationService.findCombinationsAsync(target, invoices, filters), this::buildResponse);
+        }
+
+        @PostMapping("/first")
+        public FirstMatchResponse findFirstInvoiceCombination(@Valid @RequestBody CombinationRequest request,
+                                                              @RequestParam(value = "timeBudgetMs", defaultValue = "1000") long timeBudgetMs) {
+                if (timeBudgetMs <= 0 || timeBudgetMs > MAX_FIRST_MATCH_BUDGET_MS) {
+                        throw new IllegalArgumentException("Time budget must be between 1 and " + MAX_FIRST_MATCH_BUDGET_MS + " milliseconds.");
+                }
+                CombinationFilters filters = buildFilters(request.minInvoices(), request.maxInvoices(), request.requiredInvoiceIds());
+                FirstMatchResult result = combinationService.findFirstCombination(request.target(),
+                        request.invoices(),
+                        filters,
+                        Duration.ofMillis(timeBudgetMs));
+                return new FirstMatchResponse(result.combination(),
+                        toAmounts(result.invoiceById()),
+                        result.foundWithinBudget(),
+                        result.noMatchExists(),
+                        result.elapsedMillis());
+        }
+
+        @PostMapping("/estimate")
+        public SearchEstimateResponse estimateInvoiceCombinations(@Valid @RequestBody CombinationRequest request) {
+                CombinationFilters filters = buildFilters(request.minInvoices(), request.maxInvoices(), request.requiredInvoiceIds());
+                SearchAssessment assessment = combinationService.assess(request.target(), request.invoices(), filters);
+                return new SearchEstimateResponse(assessment.estimate().invoiceCount(),
+                        assessment.estimate().maxCombinationSize(),
+                        assessment.estimate().estimatedNodes(),
+                        assessment.estimate().estimatedCombinations(),
+                        assessment.decision().name().toLowerCase(java.util.Locale.ROOT));
+        }
+
+        @PostMapping("/pages")
+        public CombinationPageResponse findFirstCombinationPage(@Valid @RequestBody CombinationRequest request,
+                                                                @RequestParam(value = "pageSize", defaultValue = "100") int pageSize) {
+                CombinationFilters filters = buildFilters(request.minInvoices(), request.maxInvoices(), request.requiredInvoiceIds());
+                CombinationPage page = combinationPagingService.firstPage(request.target(), request.invoices(), filters, pageSize);
+                return buildPageResponse(page);
+        }
+
+        @GetMapping("/pages/{cursor}")
+        public CombinationPageResponse findNextCombinationPage(@PathVariable("cursor") String cursor,
+                                                               @RequestParam(value = "pageSize", defaultValue = "100") int pageSize) {
+                CombinationPage page = combinationPagingService.nextPage(cursor, pageSize);
+                return buildPageResponse(page);
         }
 
         @PostMapping(value = "/export", produces = "text/csv")
-        public ResponseEntity<ByteArrayResource> exportInvoiceCombinations(@Valid @RequestBody CombinationRequest request) {
+        public DeferredResult<ResponseEntity<ByteArrayResource>> exportInvoiceCombinations(@Valid @RequestBody CombinationRequest request) {
                 CombinationFilters filters = buildFilters(request.minInvoices(), request.maxInvoices(), request.requiredInvoiceIds());
-                CombinationResult result = combinationService.findCombinations(request.target(), request.invoices(), filters);
+                return defer(combinationService.findCombinationsAsync(request.target(), request.invoices(), filters),
+                        this::buildExport);
+        }
 
+        private ResponseEntity<ByteArrayResource> buildExport(CombinationResult result) {
                 StringBuilder builder = new StringBuilder();
                 builder.append("Combination,Invoice IDs,Total Amount\n");
 
@@ -92,19 +208,70 @@ public class CombinationController {
                 return ResponseEntity.ok()
                         .contentType(MediaType.TEXT_PLAIN)
                         .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice-mix-combinations.csv")
+                        .header("X-Combinations-Truncated", String.valueOf(result.truncated()))
                         .contentLength(csvBytes.length)
                         .body(resource);
         }
 
+        /**
+         * Completes the request when the search does, releasing the request thread meanwhile. A request that times
+         * out or fails in the container detaches from the search, which is cancelled once nobody else is waiting for
+         * it. Tomcat does not watch the connection of a waiting request, so a client that merely disconnects is only
+         * noticed when {@code combinations.search.timeout} expires.
+         */
+        private <T> DeferredResult<T> defer(CompletableFuture<CombinationResult> search,
+                                            Function<CombinationResult, T> toResponse) {
+                DeferredResult<T> deferred = new DeferredResult<>(searchTimeoutMillis);
+                deferred.onTimeout(() -> search.cancel(true));
+                deferred.onError(failure -> search.cancel(true));
+                search.whenComplete((result, failure) -> {
+                        if (search.isCancelled()) {
+                                // Only the timeout and error callbacks cancel, and the container answers those.
+                                return;
+                        }
+                        if (failure != null) {
+                                deferred.setErrorResult(failure instanceof CompletionException ? failure.getCause() : failure);
+                                return;
+                        }
+                        try {
+                                deferred.setResult(toResponse.apply(result));
+                        } catch (RuntimeException exception) {
+                                deferred.setErrorResult(exception);
+                        }
+                });
+                return deferred;
+        }
+
         private CombinationResponse buildResponse(CombinationResult result) {
-                Map<String, BigDecimal> invoiceAmounts = result.invoiceById().entrySet().stream()
+                return new CombinationResponse(result.combinations(), toAmounts(result.invoiceById()), result.truncated());
+        }
+
+        private CombinationPageResponse buildPageResponse(CombinationPage page) {
+                return new CombinationPageResponse(page.combinations(), toAmounts(page.invoiceById()), page.nextCursor(), page.truncated());
+        }
+
+        private Map<String, BigDecimal> toAmounts(Map<String, com.invoicecombinationfinder.backend.dto.InvoiceInput> invoiceById) {
+                return invoiceById.entrySet().stream()
                         .collect(Collectors.toMap(
                                 Map.Entry::getKey,
                                 entry -> entry.getValue().amount(),
                                 (first, second) -> first,
                                 java.util.LinkedHashMap::new
                         ));
-                return new CombinationResponse(result.combinations(), invoiceAmounts);
+        }
+
+        private char toDelimiter(String delimiter) {
+                if ("tab".equalsIgnoreCase(delimiter) || "\\t".equals(delimiter)) {
+                        return '\t';
+                }
+                return toSingleCharacter(delimiter, "Delimiter");
+        }
+
+        private char toSingleCharacter(String value, String name) {
+                if (value.length() != 1) {
+                        throw new IllegalArgumentException(name + " must be a single character.");
+                }
+                return value.charAt(0);
         }
 
         private CombinationFilters buildFilters(Integer minInvoices,
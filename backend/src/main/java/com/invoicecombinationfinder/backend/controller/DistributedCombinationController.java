@@ -0,0 +1,130 @@
+package com.invoicecombinationfinder.backend.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.invoicecombinationfinder.backend.dto.CombinationRequest;
+import com.invoicecombinationfinder.backend.dto.DistributedCombinationResponse;
+import com.invoicecombinationfinder.backend.dto.DistributedProgressResponse;
+import com.invoicecombinationfinder.backend.dto.PartitionSearchRequest;
+import com.invoicecombinationfinder.backend.dto.PartitionSearchResponse;
+import com.invoicecombinationfinder.backend.service.CombinationFilters;
+import com.invoicecombinationfinder.backend.service.CombinationService;
+import com.invoicecombinationfinder.backend.service.DistributedCombinationResult;
+import com.invoicecombinationfinder.backend.service.DistributedCombinationService;
+import com.invoicecombinationfinder.backend.service.PartitionResult;
+import com.invoicecombinationfinder.backend.service.SearchPartition;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/combinations")
+public class DistributedCombinationController {
+
+        private static final long NO_TIMEOUT = -1;
+
+        private final CombinationService combinationService;
+        private final DistributedCombinationService distributedCombinationService;
+        private final ObjectMapper objectMapper;
+
+        public DistributedCombinationController(CombinationService combinationService,
+                                                DistributedCombinationService distributedCombinationService,
+                                                ObjectMapper objectMapper) {
+                this.combinationService = combinationService;
+                this.distributedCombinationService = distributedCombinationService;
+                this.objectMapper = objectMapper;
+        }
+
+        @PostMapping("/distributed")
+        public DistributedCombinationResponse findInvoiceCombinationsDistributed(@Valid @RequestBody CombinationRequest request) {
+                CombinationFilters filters = buildFilters(request.minInvoices(), request.maxInvoices(), request.requiredInvoiceIds());
+                return toResponse(distributedCombinationService.findCombinations(request.target(), request.invoices(), filters));
+        }
+
+        /**
+         * Same search as {@code /distributed}, streamed as newline-delimited JSON: one {@code progress} line per
+         * completed partition, then a {@code result} line, or an {@code error} line if the search fails. The stream
+         * reports its own progress, so unlike the other asynchronous endpoints it has no request timeout.
+         */
+        @PostMapping(path = "/distributed/progress", produces = MediaType.APPLICATION_NDJSON_VALUE)
+        public WebAsyncTask<Void> streamInvoiceCombinationsDistributed(@Valid @RequestBody CombinationRequest request,
+                                                                       HttpServletResponse response) {
+                CombinationFilters filters = buildFilters(request.minInvoices(), request.maxInvoices(), request.requiredInvoiceIds());
+                return new WebAsyncTask<>(NO_TIMEOUT, () -> {
+                        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+                        OutputStream outputStream = response.getOutputStream();
+                        Map<String, Object> last;
+                        try {
+                                DistributedCombinationResult result = distributedCombinationService.findCombinations(request.target(),
+                                        request.invoices(),
+                                        filters,
+                                        progress -> writeLine(outputStream, Map.of("progress", new DistributedProgressResponse(
+                                                progress.completedPartitions(),
+                                                progress.partitionCount(),
+                                                progress.partition().prefixMask(),
+                                                progress.worker(),
+                                                progress.combinationsFound(),
+                                                progress.nodesVisited()))));
+                                last = Map.of("result", toResponse(result));
+                        } catch (UncheckedIOException exception) {
+                                throw exception.getCause();
+                        } catch (RuntimeException exception) {
+                                last = Map.of("error", String.valueOf(exception.getMessage()));
+                        }
+                        writeLine(outputStream, last);
+                        return null;
+                });
+        }
+
+        @PostMapping("/partitions")
+        public PartitionSearchResponse findPartitionCombinations(@Valid @RequestBody PartitionSearchRequest request) {
+                CombinationFilters filters = buildFilters(request.minInvoices(), request.maxInvoices(), request.requiredInvoiceIds());
+                SearchPartition partition = new SearchPartition(request.prefixLength(), request.prefixMask());
+                PartitionResult result = combinationService.findPartitionCombinations(request.target(), request.invoices(), filters, partition);
+                return new PartitionSearchResponse(result.combinations(), result.nodesVisited(), result.truncated());
+        }
+
+        private DistributedCombinationResponse toResponse(DistributedCombinationResult result) {
+                Map<String, BigDecimal> invoiceAmounts = result.invoiceById().entrySet().stream()
+                        .collect(Collectors.toMap(
+                                Map.Entry::getKey,
+                                entry -> entry.getValue().amount(),
+                                (first, second) -> first,
+                                LinkedHashMap::new
+                        ));
+                return new DistributedCombinationResponse(result.combinations(),
+                        invoiceAmounts,
+                        result.partitionCount(),
+                        result.nodesVisited(),
+                        result.partitionsByWorker(),
+                        result.truncated());
+        }
+
+        private void writeLine(OutputStream outputStream, Object line) {
+                try {
+                        outputStream.write(objectMapper.writeValueAsBytes(line));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                }
+        }
+
+        private CombinationFilters buildFilters(Integer minInvoices, Integer maxInvoices, List<String> requiredIds) {
+                return new CombinationFilters(minInvoices, maxInvoices, requiredIds == null ? null : new LinkedHashSet<>(requiredIds));
+        }
+}
@@ -0,0 +1,81 @@
+package com.invoicecombinationfinder.backend.controller;
+
+import com.invoicecombinationfinder.backend.dto.CombinationResponse;
+import com.invoicecombinationfinder.backend.dto.InvoiceSetRequest;
+import com.invoicecombinationfinder.backend.dto.InvoiceSetResponse;
+import com.invoicecombinationfinder.backend.dto.InvoiceSetSearchRequest;
+import com.invoicecombinationfinder.backend.service.CombinationFilters;
+import com.invoicecombinationfinder.backend.service.CombinationResult;
+import com.invoicecombinationfinder.backend.service.InvoiceSetService;
+import com.invoicecombinationfinder.backend.service.InvoiceSetSummary;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/invoice-sets")
+public class InvoiceSetController {
+
+        private final InvoiceSetService invoiceSetService;
+
+        public InvoiceSetController(InvoiceSetService invoiceSetService) {
+                this.invoiceSetService = invoiceSetService;
+        }
+
+        @PostMapping
+        public InvoiceSetResponse registerInvoiceSet(@Valid @RequestBody InvoiceSetRequest request) {
+                return toResponse(invoiceSetService.register(request.invoices()));
+        }
+
+        @PostMapping("/{setId}/invoices")
+        public InvoiceSetResponse addInvoices(@PathVariable("setId") String setId,
+                                              @Valid @RequestBody InvoiceSetRequest request) {
+                return toResponse(invoiceSetService.addInvoices(setId, request.invoices()));
+        }
+
+        @DeleteMapping("/{setId}/invoices/{invoiceId}")
+        public InvoiceSetResponse removeInvoice(@PathVariable("setId") String setId,
+                                                @PathVariable("invoiceId") String invoiceId) {
+                return toResponse(invoiceSetService.removeInvoices(setId, List.of(invoiceId)));
+        }
+
+        @DeleteMapping("/{setId}")
+        public ResponseEntity<Void> deleteInvoiceSet(@PathVariable("setId") String setId) {
+                invoiceSetService.delete(setId);
+                return ResponseEntity.noContent().build();
+        }
+
+        @PostMapping("/{setId}/combinations")
+        public CombinationResponse findInvoiceCombinations(@PathVariable("setId") String setId,
+                                                           @Valid @RequestBody InvoiceSetSearchRequest request) {
+                CombinationFilters filters = new CombinationFilters(
+                        request.minInvoices(),
+                        request.maxInvoices(),
+                        request.requiredInvoiceIds() == null ? null : new LinkedHashSet<>(request.requiredInvoiceIds()));
+                CombinationResult result = invoiceSetService.findCombinations(setId, request.target(), filters);
+                Map<String, BigDecimal> invoiceAmounts = result.invoiceById().entrySet().stream()
+                        .collect(Collectors.toMap(
+                                Map.Entry::getKey,
+                                entry -> entry.getValue().amount(),
+                                (first, second) -> first,
+                                LinkedHashMap::new
+                        ));
+                return new CombinationResponse(result.combinations(), invoiceAmounts, result.truncated());
+        }
+
+        private InvoiceSetResponse toResponse(InvoiceSetSummary summary) {
+                return new InvoiceSetResponse(summary.id(), summary.invoiceCount());
+        }
+}
@@ -0,0 +1,20 @@
+package com.invoicecombinationfinder.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public record CombinationPageResponse(
+        List<List<String>> combinations,
+        int combinationCount,
+        Map<String, BigDecimal> invoiceAmounts,
+        String nextCursor,
+        boolean truncated
+) {
+        public CombinationPageResponse(List<List<String>> combinations,
+                                       Map<String, BigDecimal> invoiceAmounts,
+                                       String nextCursor,
+                                       boolean truncated) {
+                this(combinations, combinations.size(), invoiceAmounts, nextCursor, truncated);
+        }
+}
@@ -7,9 +7,14 @@ import java.util.Map;
 public record CombinationResponse(
         List<List<String>> combinations,
         int combinationCount,
-        Map<String, BigDecimal> invoiceAmounts
+        Map<String, BigDecimal> invoiceAmounts,
+        boolean truncated
 ) {
         public CombinationResponse(List<List<String>> combinations, Map<String, BigDecimal> invoiceAmounts) {
-                this(combinations, combinations.size(), invoiceAmounts);
+                this(combinations, invoiceAmounts, false);
+        }
+
+        public CombinationResponse(List<List<String>> combinations, Map<String, BigDecimal> invoiceAmounts, boolean truncated) {
+                this(combinations, combinations.size(), invoiceAmounts, truncated);
         }
 }
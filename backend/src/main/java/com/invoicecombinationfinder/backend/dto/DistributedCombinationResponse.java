@@ -0,0 +1,24 @@
+package com.invoicecombinationfinder.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public record DistributedCombinationResponse(
+        List<List<String>> combinations,
+        int combinationCount,
+        Map<String, BigDecimal> invoiceAmounts,
+        int partitionCount,
+        long nodesVisited,
+        Map<String, Integer> partitionsByWorker,
+        boolean truncated
+) {
+        public DistributedCombinationResponse(List<List<String>> combinations,
+                                              Map<String, BigDecimal> invoiceAmounts,
+                                              int partitionCount,
+                                              long nodesVisited,
+                                              Map<String, Integer> partitionsByWorker,
+                                              boolean truncated) {
+                this(combinations, combinations.size(), invoiceAmounts, partitionCount, nodesVisited, partitionsByWorker, truncated);
+        }
+}
@@ -0,0 +1,11 @@
+package com.invoicecombinationfinder.backend.dto;
+
+public record DistributedProgressResponse(
+        int completedPartitions,
+        int partitionCount,
+        long prefixMask,
+        String worker,
+        int combinationsFound,
+        long nodesVisited
+) {
+}
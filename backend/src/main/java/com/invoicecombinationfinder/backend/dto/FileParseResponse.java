@@ -0,0 +1,11 @@
+package com.invoicecombinationfinder.backend.dto;
+
+import java.util.List;
+
+public record FileParseResponse(
+        String filename,
+        List<String> sheets,
+        int invoiceCount,
+        long parseMillis
+) {
+}
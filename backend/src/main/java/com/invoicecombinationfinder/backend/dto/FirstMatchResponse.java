@@ -0,0 +1,14 @@
+package com.invoicecombinationfinder.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public record FirstMatchResponse(
+        List<String> combination,
+        Map<String, BigDecimal> invoiceAmounts,
+        boolean foundWithinBudget,
+        boolean noMatchExists,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,12 @@
+package com.invoicecombinationfinder.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public record InvoiceSetRequest(
+        @NotEmpty(message = "At least one invoice is required")
+        List<@Valid InvoiceInput> invoices
+) {
+}
@@ -0,0 +1,7 @@
+package com.invoicecombinationfinder.backend.dto;
+
+public record InvoiceSetResponse(
+        String id,
+        int invoiceCount
+) {
+}
@@ -0,0 +1,13 @@
+package com.invoicecombinationfinder.backend.dto;
+
+import java.util.List;
+
+public record PartitionSearchResponse(
+        List<List<String>> combinations,
+        long nodesVisited,
+        boolean truncated
+) {
+        public PartitionSearchResponse(List<List<String>> combinations, long nodesVisited) {
+                this(combinations, nodesVisited, false);
+        }
+}
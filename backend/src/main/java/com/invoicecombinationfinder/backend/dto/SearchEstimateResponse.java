@@ -0,0 +1,10 @@
+package com.invoicecombinationfinder.backend.dto;
+
+public record SearchEstimateResponse(
+        int invoiceCount,
+        int maxCombinationSize,
+        double estimatedNodes,
+        double estimatedCombinations,
+        String decision
+) {
+}
@@ -0,0 +1,20 @@
+package com.invoicecombinationfinder.backend.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public record UploadCombinationResponse(
+        List<List<String>> combinations,
+        int combinationCount,
+        Map<String, BigDecimal> invoiceAmounts,
+        boolean truncated,
+        List<FileParseResponse> files
+) {
+        public UploadCombinationResponse(List<List<String>> combinations,
+                                         Map<String, BigDecimal> invoiceAmounts,
+                                         boolean truncated,
+                                         List<FileParseResponse> files) {
+                this(combinations, combinations.size(), invoiceAmounts, truncated, files);
+        }
+}
@@ -1,5 +1,6 @@
 package com.invoicecombinationfinder.backend.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -38,4 +39,22 @@ public class GlobalExceptionHandler {
                 body.put("message", exception.getMessage());
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(body);
         }
+
+        @ExceptionHandler(SearchBudgetExceededException.class)
+        public ResponseEntity<Map<String, Object>> handleSearchBudgetExceededException(SearchBudgetExceededException exception) {
+                Map<String, Object> body = new HashMap<>();
+                body.put("message", exception.getMessage());
+                if (exception.getEstimate() != null) {
+                        body.put("estimatedNodes", exception.getEstimate().estimatedNodes());
+                        body.put("estimatedCombinations", exception.getEstimate().estimatedCombinations());
+                }
+                if (exception.getRetryAfter() == null) {
+                        // Rejected on its estimate: the same search will be rejected again, so this is not a 5xx.
+                        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(body);
+                }
+                long seconds = Math.max(1, (exception.getRetryAfter().toMillis() + 999) / 1000);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                        .body(body);
+        }
 }
@@ -0,0 +1,36 @@
+package com.invoicecombinationfinder.backend.exception;
+
+import com.invoicecombinationfinder.backend.service.SearchEstimate;
+
+import java.time.Duration;
+
+/**
+ * Thrown when admission control turns a search away. It carries a retry delay when waiting is likely to help, i.e.
+ * when the search timed out in the queue or the search pool was full; without one the search itself is too large
+ * and will be turned away again.
+ */
+public class SearchBudgetExceededException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient SearchEstimate estimate;
+        private final Duration retryAfter;
+
+        public SearchBudgetExceededException(String message, SearchEstimate estimate) {
+                this(message, estimate, null);
+        }
+
+        public SearchBudgetExceededException(String message, SearchEstimate estimate, Duration retryAfter) {
+                super(message);
+                this.estimate = estimate;
+                this.retryAfter = retryAfter;
+        }
+
+        public SearchEstimate getEstimate() {
+                return estimate;
+        }
+
+        public Duration getRetryAfter() {
+                return retryAfter;
+        }
+}
@@ -0,0 +1,8 @@
+package com.invoicecombinationfinder.backend.service;
+
+public enum AdmissionDecision {
+        ACCEPT,
+        REJECT,
+        LIMIT,
+        QUEUE
+}
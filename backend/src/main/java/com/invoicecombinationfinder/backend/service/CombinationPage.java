@@ -0,0 +1,14 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.util.List;
+import java.util.Map;
+
+public record CombinationPage(
+        List<List<String>> combinations,
+        Map<String, InvoiceInput> invoiceById,
+        String nextCursor,
+        boolean truncated
+) {
+}
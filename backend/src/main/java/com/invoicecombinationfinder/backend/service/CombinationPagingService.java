@@ -0,0 +1,105 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Serves combination results page by page. The suspended search behind each page is kept in a bounded,
+ * least-recently-used store under an opaque cursor token, so the next page resumes the search where the previous
+ * one stopped instead of recomputing it. Each token can be redeemed once; the follow-up page carries a new one. A
+ * page the admission policy turns away leaves its token redeemable.
+ * Every page is admitted under the assessment made for the first one, and a node budget covers all pages together.
+ */
+@Service
+public class CombinationPagingService {
+
+        private final CombinationService combinationService;
+        private final Map<String, PagedSearch> cursors;
+
+        public CombinationPagingService(CombinationService combinationService,
+                                        @Value("${combinations.cursor.capacity:256}") int cursorCapacity) {
+                if (cursorCapacity <= 0) {
+                        throw new IllegalArgumentException("Cursor capacity must be greater than zero.");
+                }
+                this.combinationService = combinationService;
+                this.cursors = new LinkedHashMap<>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(Map.Entry<String, PagedSearch> eldest) {
+                                return size() > cursorCapacity;
+                        }
+                };
+        }
+
+        public CombinationPage firstPage(BigDecimal target,
+                                         List<InvoiceInput> invoices,
+                                         CombinationFilters filters,
+                                         int pageSize) {
+                validatePageSize(pageSize);
+                PreparedSearch search = combinationService.prepare(target, invoices, filters);
+                SearchAdmissionPolicy.Admission admission = combinationService.admit(search);
+                PagedSearch pagedSearch = new PagedSearch(new CombinationSearch(search), search.invoiceById(), admission.assessment());
+                return nextPage(pagedSearch, admission, pageSize);
+        }
+
+        public CombinationPage nextPage(String cursor, int pageSize) {
+                validatePageSize(pageSize);
+                PagedSearch pagedSearch;
+                synchronized (cursors) {
+                        pagedSearch = cursor == null ? null : cursors.remove(cursor);
+                }
+                if (pagedSearch == null) {
+                        throw new IllegalArgumentException("Unknown or expired cursor.");
+                }
+                SearchAdmissionPolicy.Admission admission;
+                try {
+                        admission = combinationService.admit(pagedSearch.assessment());
+                } catch (RuntimeException exception) {
+                        // The page was not served, so the cursor stays redeemable for a retry.
+                        synchronized (cursors) {
+                                cursors.put(cursor, pagedSearch);
+                        }
+                        throw exception;
+                }
+                return nextPage(pagedSearch, admission, pageSize);
+        }
+
+        private CombinationPage nextPage(PagedSearch pagedSearch, SearchAdmissionPolicy.Admission admission, int pageSize) {
+                List<List<String>> combinations;
+                boolean truncated;
+                try (admission) {
+                        CombinationSearch search = pagedSearch.search();
+                        combinations = search.next(pageSize, admission.nodeBudget());
+                        truncated = !search.isExhausted() && search.nodesVisited() >= admission.nodeBudget();
+                }
+                Map<String, InvoiceInput> pageInvoices = new LinkedHashMap<>();
+                combinations.forEach(combination -> combination.forEach(id ->
+                        pageInvoices.putIfAbsent(id, pagedSearch.invoiceById().get(id))));
+
+                String nextCursor = null;
+                if (!pagedSearch.search().isExhausted() && !truncated) {
+                        nextCursor = UUID.randomUUID().toString();
+                        synchronized (cursors) {
+                                cursors.put(nextCursor, pagedSearch);
+                        }
+                }
+                return new CombinationPage(combinations, pageInvoices, nextCursor, truncated);
+        }
+
+        private void validatePageSize(int pageSize) {
+                if (pageSize <= 0) {
+                        throw new IllegalArgumentException("Page size must be greater than zero.");
+                }
+        }
+
+        private record PagedSearch(CombinationSearch search,
+                                   Map<String, InvoiceInput> invoiceById,
+                                   SearchAssessment assessment) {
+        }
+}
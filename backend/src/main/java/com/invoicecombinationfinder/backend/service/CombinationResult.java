@@ -7,6 +7,10 @@ import java.util.Map;
 
 public record CombinationResult(
         List<List<String>> combinations,
-        Map<String, InvoiceInput> invoiceById
+        Map<String, InvoiceInput> invoiceById,
+        boolean truncated
 ) {
+        public CombinationResult(List<List<String>> combinations, Map<String, InvoiceInput> invoiceById) {
+                this(combinations, invoiceById, false);
+        }
 }
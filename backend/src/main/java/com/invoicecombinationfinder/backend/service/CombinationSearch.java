@@ -0,0 +1,149 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Depth-first search over the sorted invoices with an explicit stack instead of recursion, so the search can be
+ * suspended after any number of matches and resumed later. Combinations are produced in the same order as a
+ * recursive include-in-ascending-order backtrack would produce them.
+ */
+final class CombinationSearch {
+
+        private static final long CANCELLATION_CHECK_INTERVAL = 0xFFF;
+
+        private final List<InvoiceInput> invoices;
+        private final int minInvoices;
+        private final int maxInvoices;
+        private final int[] requiredSlot;
+        private final int[] requiredSlotUsage;
+        private final int[] stack;
+
+        private int depth;
+        private int nextIndex;
+        private int requiredInStack;
+        private long nodesVisited;
+        private BigDecimal remaining;
+        private boolean exhausted;
+
+        CombinationSearch(PreparedSearch search) {
+                this.invoices = search.invoices();
+                this.minInvoices = search.minInvoices();
+                this.maxInvoices = search.maxInvoices() == null
+                        ? invoices.size()
+                        : Math.min(search.maxInvoices(), invoices.size());
+                List<String> requiredIds = List.copyOf(search.requiredInvoiceIds());
+                this.requiredSlot = new int[invoices.size()];
+                for (int i = 0; i < invoices.size(); i++) {
+                        requiredSlot[i] = requiredIds.indexOf(invoices.get(i).id());
+                }
+                this.requiredSlotUsage = new int[requiredIds.size()];
+                this.stack = new int[this.maxInvoices];
+                this.remaining = search.target();
+                this.exhausted = minInvoices > invoices.size();
+        }
+
+        /**
+         * The order in which this search emits combinations over the given sorted invoices: lexicographic by the
+         * invoices' positions. Lets results computed piecewise be merged into the order of a single full search.
+         */
+        static Comparator<List<String>> resultOrder(List<InvoiceInput> sortedInvoices) {
+                Map<String, Integer> positions = new HashMap<>();
+                for (int i = 0; i < sortedInvoices.size(); i++) {
+                        positions.putIfAbsent(sortedInvoices.get(i).id(), i);
+                }
+                return (left, right) -> {
+                        int shared = Math.min(left.size(), right.size());
+                        for (int i = 0; i < shared; i++) {
+                                int comparison = Integer.compare(positions.get(left.get(i)), positions.get(right.get(i)));
+                                if (comparison != 0) {
+                                        return comparison;
+                                }
+                        }
+                        return Integer.compare(left.size(), right.size());
+                };
+        }
+
+        List<List<String>> next(int limit) {
+                return next(limit, Long.MAX_VALUE);
+        }
+
+        /**
+         * Returns up to {@code limit} further combinations, stopping early once {@code maxNodes} nodes have been
+         * visited in total. The search is only exhausted if it ran to completion.
+         */
+        synchronized List<List<String>> next(int limit, long maxNodes) {
+                List<List<String>> results = new ArrayList<>();
+                while (!exhausted && results.size() < limit && nodesVisited < maxNodes) {
+                        if (depth < maxInvoices
+                                && nextIndex < invoices.size()
+                                && invoices.get(nextIndex).amount().compareTo(remaining) <= 0) {
+                                push(nextIndex);
+                                if (remaining.signum() == 0) {
+                                        if (depth >= minInvoices && requiredInStack == requiredSlotUsage.length) {
+                                                results.add(currentCombination());
+                                        }
+                                        pop();
+                                }
+                                continue;
+                        }
+                        if (depth == 0) {
+                                exhausted = true;
+                        } else {
+                                pop();
+                        }
+                }
+                return results;
+        }
+
+        synchronized boolean isExhausted() {
+                return exhausted;
+        }
+
+        synchronized long nodesVisited() {
+                return nodesVisited;
+        }
+
+        private void push(int index) {
+                stack[depth++] = index;
+                nodesVisited++;
+                checkCancelled();
+                remaining = remaining.subtract(invoices.get(index).amount());
+                int slot = requiredSlot[index];
+                if (slot >= 0 && requiredSlotUsage[slot]++ == 0) {
+                        requiredInStack++;
+                }
+                nextIndex = index + 1;
+        }
+
+        private void pop() {
+                int index = stack[--depth];
+                remaining = remaining.add(invoices.get(index).amount());
+                int slot = requiredSlot[index];
+                if (slot >= 0 && --requiredSlotUsage[slot] == 0) {
+                        requiredInStack--;
+                }
+                nextIndex = index + 1;
+        }
+
+        private void checkCancelled() {
+                if ((nodesVisited & CANCELLATION_CHECK_INTERVAL) == 0 && Thread.currentThread().isInterrupted()) {
+                        throw new CancellationException("Search was cancelled.");
+                }
+        }
+
+        private List<String> currentCombination() {
+                List<String> combination = new ArrayList<>(depth);
+                for (int i = 0; i < depth; i++) {
+                        combination.add(invoices.get(stack[i]).id());
+                }
+                return List.copyOf(combination);
+        }
+}
@@ -1,22 +1,181 @@
 package com.invoicecombinationfinder.backend.service;
 
 import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class CombinationService {
 
+        static final Comparator<InvoiceInput> INVOICE_ORDER = Comparator.comparing(InvoiceInput::amount)
+                .thenComparing(InvoiceInput::id);
+
+        private static final int ESTIMATE_SAMPLES = 64;
+
+        private final SearchAdmissionPolicy admissionPolicy;
+        private final SearchCoalescer searchCoalescer;
+
+        public CombinationService() {
+                this(SearchAdmissionPolicy.unlimited());
+        }
+
+        public CombinationService(SearchAdmissionPolicy admissionPolicy) {
+                this(admissionPolicy, new SearchCoalescer());
+        }
+
+        @Autowired
+        public CombinationService(SearchAdmissionPolicy admissionPolicy, SearchCoalescer searchCoalescer) {
+                this.admissionPolicy = admissionPolicy;
+                this.searchCoalescer = searchCoalescer;
+        }
+
         public CombinationResult findCombinations(BigDecimal target,
                                                  List<InvoiceInput> invoices,
                                                  CombinationFilters filters) {
+                PreparedSearch search = prepare(target, invoices, filters);
+                return searchCoalescer.execute(SearchCoalescer.key(search), () -> search(search));
+        }
+
+        /**
+         * Starts the same search as {@link #findCombinations(BigDecimal, List, CombinationFilters)} without waiting for
+         * it. Invalid input still fails here rather than through the future. Cancelling the future stops waiting; the
+         * search itself is cancelled once no other request is waiting for it.
+         */
+        public CompletableFuture<CombinationResult> findCombinationsAsync(BigDecimal target,
+                                                                          List<InvoiceInput> invoices,
+                                                                          CombinationFilters filters) {
+                PreparedSearch search = prepare(target, invoices, filters);
+                return searchCoalescer.submit(SearchCoalescer.key(search), () -> search(search));
+        }
+
+        /**
+         * Returns the first combination found within the time budget instead of all of them. The combination is not
+         * necessarily the first one {@link #findCombinations} would list.
+         */
+        public FirstMatchResult findFirstCombination(BigDecimal target,
+                                                     List<InvoiceInput> invoices,
+                                                     CombinationFilters filters,
+                                                     Duration timeBudget) {
+                if (timeBudget == null || timeBudget.isNegative() || timeBudget.isZero()) {
+                        throw new IllegalArgumentException("Time budget must be greater than zero.");
+                }
+                long started = System.nanoTime();
+                PreparedSearch search = prepare(target, invoices, filters);
+                ScaledAmounts scaled = ScaledAmounts.of(search.target(), search.invoices());
+                if (scaled == null) {
+                        throw new IllegalArgumentException("Invoice amounts have too many digits for a first-match search.");
+                }
+
+                long deadline = started + Math.min(timeBudget.toNanos(), Long.MAX_VALUE / 2);
+                FirstMatchSearch firstMatchSearch = new FirstMatchSearch(search, scaled, new Random(), deadline);
+                int[] positions = firstMatchSearch.run();
+                long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                if (positions == null) {
+                        return new FirstMatchResult(null, Map.of(), false, firstMatchSearch.isComplete(), elapsedMillis);
+                }
+
+                Map<String, InvoiceInput> invoiceById = new LinkedHashMap<>();
+                for (int position : positions) {
+                        InvoiceInput invoice = search.invoices().get(position);
+                        invoiceById.put(invoice.id(), invoice);
+                }
+                return new FirstMatchResult(List.copyOf(invoiceById.keySet()),
+                        Collections.unmodifiableMap(invoiceById),
+                        true,
+                        false,
+                        elapsedMillis);
+        }
+
+        public SearchAssessment assess(BigDecimal target,
+                                       List<InvoiceInput> invoices,
+                                       CombinationFilters filters) {
+                return admissionPolicy.assess(prepare(target, invoices, filters));
+        }
+
+        public PartitionResult findPartitionCombinations(BigDecimal target,
+                                                         List<InvoiceInput> invoices,
+                                                         CombinationFilters filters,
+                                                         SearchPartition partition) {
+                PartitionSplit split = PartitionSplit.of(prepare(target, invoices, filters), partition);
+                if (split.rest() == null) {
+                        return split.settled();
+                }
+                try (SearchAdmissionPolicy.Admission admission = admissionPolicy.admit(split.rest())) {
+                        CombinationSearch rest = new CombinationSearch(split.rest());
+                        List<List<String>> partials = rest.next(Integer.MAX_VALUE, admission.nodeBudget());
+                        return new PartitionResult(split.withPrefix(partials), rest.nodesVisited(), !rest.isExhausted());
+                }
+        }
+
+        SearchAdmissionPolicy.Admission admit(PreparedSearch search) {
+                return admissionPolicy.admit(search);
+        }
+
+        SearchAdmissionPolicy.Admission admit(SearchAssessment assessment) {
+                return admissionPolicy.admit(assessment);
+        }
+
+        private CombinationResult search(PreparedSearch search) {
+                try (SearchAdmissionPolicy.Admission admission = admissionPolicy.admit(search)) {
+                        GrayCodeSubsetEnumerator enumerator = GrayCodeSubsetEnumerator.forSearch(search);
+                        if (enumerator != null
+                                && enumerator.steps() <= admission.nodeBudget()
+                                && enumerator.isCheaperThan(() -> estimate(search, admission))) {
+                                return new CombinationResult(enumerator.enumerate(),
+                                        Collections.unmodifiableMap(search.invoiceById()));
+                        }
+                        CombinationSearch combinationSearch = new CombinationSearch(search);
+                        List<List<String>> results = combinationSearch.next(Integer.MAX_VALUE, admission.nodeBudget());
+                        return new CombinationResult(List.copyOf(results),
+                                Collections.unmodifiableMap(search.invoiceById()),
+                                !combinationSearch.isExhausted());
+                }
+        }
+
+        // Reuses the estimate made for admission control, if there was one.
+        private static SearchEstimate estimate(PreparedSearch search, SearchAdmissionPolicy.Admission admission) {
+                if (admission.assessment() != null) {
+                        return admission.assessment().estimate();
+                }
+                return SearchCostEstimator.estimate(search, ESTIMATE_SAMPLES, ThreadLocalRandom.current());
+        }
+
+        /**
+         * Searches invoices that were already validated and trimmed while they were read, see
+         * {@link JsonInvoiceStreamParser}, so they are only sorted rather than copied again.
+         */
+        public CombinationResult findCombinations(StreamedCombinationRequest request) {
+                PreparedSearch search = prepare(request.target(), request.invoices(), request.filters(), false);
+                return searchCoalescer.execute(SearchCoalescer.key(search), () -> search(search));
+        }
+
+        public CompletableFuture<CombinationResult> findCombinationsAsync(StreamedCombinationRequest request) {
+                PreparedSearch search = prepare(request.target(), request.invoices(), request.filters(), false);
+                return searchCoalescer.submit(SearchCoalescer.key(search), () -> search(search));
+        }
+
+        PreparedSearch prepare(BigDecimal target,
+                               List<InvoiceInput> invoices,
+                               CombinationFilters filters) {
+                return prepare(target, invoices, filters, true);
+        }
+
+        private PreparedSearch prepare(BigDecimal target,
+                                       List<InvoiceInput> invoices,
+                                       CombinationFilters filters,
+                                       boolean sanitize) {
                 if (target == null) {
                         throw new IllegalArgumentException("Target amount is required.");
                 }
@@ -41,22 +200,8 @@ public class CombinationService {
                         throw new IllegalArgumentException("Maximum invoice count cannot be less than the minimum invoice count.");
                 }
 
-                List<InvoiceInput> sanitizedInvoices = invoices.stream()
-                        .map(invoice -> {
-                                if (invoice == null) {
-                                        throw new IllegalArgumentException("Invoice entry cannot be null.");
-                                }
-                                BigDecimal amount = invoice.amount();
-                                if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
-                                        throw new IllegalArgumentException("Invoice amounts must be greater than zero.");
-                                }
-                                String id = invoice.id();
-                                if (id == null || id.isBlank()) {
-                                        throw new IllegalArgumentException("Invoice id is required.");
-                                }
-                                return new InvoiceInput(id.trim(), amount);
-                        })
-                        .sorted(Comparator.comparing(InvoiceInput::amount).thenComparing(InvoiceInput::id))
+                List<InvoiceInput> sanitizedInvoices = (sanitize ? sanitizeInvoices(invoices) : invoices).stream()
+                        .sorted(INVOICE_ORDER)
                         .toList();
 
                 if (sanitizedInvoices.isEmpty()) {
@@ -74,69 +219,25 @@ public class CombinationService {
                 }
 
                 int minimum = minInvoices != null ? minInvoices : 1;
-                Integer maximum = maxInvoices;
-
-                if (minimum > sanitizedInvoices.size()) {
-                        Map<String, InvoiceInput> invoiceById = new LinkedHashMap<>();
-                        sanitizedInvoices.forEach(invoice -> invoiceById.put(invoice.id(), invoice));
-                        return new CombinationResult(List.of(), invoiceById);
-                }
-
-                List<List<String>> results = new ArrayList<>();
-                backtrack(results,
-                        new ArrayList<>(),
-                        sanitizedInvoices,
-                        target,
-                        0,
-                        minimum,
-                        maximum,
-                        requiredInvoiceIds);
-                Map<String, InvoiceInput> invoiceById = new LinkedHashMap<>();
-                sanitizedInvoices.forEach(invoice -> invoiceById.put(invoice.id(), invoice));
-                return new CombinationResult(results, invoiceById);
+                return new PreparedSearch(target, sanitizedInvoices, minimum, maxInvoices, requiredInvoiceIds);
         }
 
-        private void backtrack(List<List<String>> results,
-                               List<String> currentCombination,
-                               List<InvoiceInput> invoices,
-                               BigDecimal remaining,
-                               int start,
-                               int minInvoices,
-                               Integer maxInvoices,
-                               Set<String> requiredInvoiceIds) {
-                if (remaining.compareTo(BigDecimal.ZERO) == 0) {
-                        int size = currentCombination.size();
-                        boolean meetsMin = size >= minInvoices;
-                        boolean meetsMax = maxInvoices == null || size <= maxInvoices;
-                        boolean containsRequired = requiredInvoiceIds.stream().allMatch(currentCombination::contains);
-                        if (meetsMin && meetsMax && containsRequired) {
-                                results.add(List.copyOf(currentCombination));
-                        }
-                        return;
-                }
-
-                if (maxInvoices != null && currentCombination.size() >= maxInvoices) {
-                        return;
-                }
-
-                for (int i = start; i < invoices.size(); i++) {
-                        InvoiceInput candidate = invoices.get(i);
-                        BigDecimal amount = candidate.amount();
-
-                        if (amount.compareTo(remaining) > 0) {
-                                break;
-                        }
-
-                        currentCombination.add(candidate.id());
-                        backtrack(results,
-                                currentCombination,
-                                invoices,
-                                remaining.subtract(amount),
-                                i + 1,
-                                minInvoices,
-                                maxInvoices,
-                                requiredInvoiceIds);
-                        currentCombination.remove(currentCombination.size() - 1);
-                }
+        List<InvoiceInput> sanitizeInvoices(List<InvoiceInput> invoices) {
+                return invoices.stream()
+                        .map(invoice -> {
+                                if (invoice == null) {
+                                        throw new IllegalArgumentException("Invoice entry cannot be null.");
+                                }
+                                BigDecimal amount = invoice.amount();
+                                if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                                        throw new IllegalArgumentException("Invoice amounts must be greater than zero.");
+                                }
+                                String id = invoice.id();
+                                if (id == null || id.isBlank()) {
+                                        throw new IllegalArgumentException("Invoice id is required.");
+                                }
+                                return new InvoiceInput(id.trim(), amount);
+                        })
+                        .toList();
         }
 }
@@ -0,0 +1,218 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streaming parser for CSV and TSV exports: invoice id in the first column, amount in the second, further columns
+ * ignored. The file is read through a fixed buffer in a single pass; fields may be quoted with {@code "} (doubled
+ * to escape). The id and amount fields are collected in reused builders, and amounts are accumulated digit by digit
+ * into an unscaled {@code long} and its scale instead of being parsed from a string. Each row still allocates its
+ * trimmed id, a {@link BigDecimal} built from that pair and the {@link InvoiceInput} the search consumes, so memory
+ * grows with the number of invoices. An optional header row is recognised like in {@link ExcelInvoiceParser}.
+ */
+@Component
+public class DelimitedInvoiceParser {
+
+        private static final int BUFFER_SIZE = 64 * 1024;
+        private static final char QUOTE = '"';
+        private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+        public List<InvoiceInput> parse(MultipartFile file, Character delimiter, char decimalSeparator) {
+                if (file == null || file.isEmpty()) {
+                        throw new IllegalArgumentException("Uploaded file is empty.");
+                }
+                String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+                if (!filename.endsWith(".csv") && !filename.endsWith(".tsv") && !filename.endsWith(".txt")) {
+                        throw new IllegalArgumentException("Only .csv, .tsv and .txt files are supported.");
+                }
+                char effectiveDelimiter = delimiter != null ? delimiter : filename.endsWith(".tsv") ? '\t' : ',';
+
+                try (InputStream inputStream = file.getInputStream();
+                     Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
+                        return parse(reader, effectiveDelimiter, decimalSeparator);
+                } catch (IOException exception) {
+                        throw new IllegalArgumentException("Unable to read the uploaded file.", exception);
+                }
+        }
+
+        List<InvoiceInput> parse(Reader reader, char delimiter, char decimalSeparator) throws IOException {
+                if (decimalSeparator != '.' && decimalSeparator != ',') {
+                        throw new IllegalArgumentException("Decimal separator must be '.' or ','.");
+                }
+                if (delimiter == decimalSeparator || delimiter == QUOTE || delimiter == '\n' || delimiter == '\r') {
+                        throw new IllegalArgumentException("Delimiter cannot be a quote, a line break or the decimal separator.");
+                }
+
+                Rows rows = new Rows(decimalSeparator);
+                char[] buffer = new char[BUFFER_SIZE];
+                boolean quoted = false;
+                boolean quoteInQuoted = false;
+                boolean firstChar = true;
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                        for (int i = 0; i < read; i++) {
+                                char c = buffer[i];
+                                if (firstChar) {
+                                        firstChar = false;
+                                        if (c == BYTE_ORDER_MARK) {
+                                                continue;
+                                        }
+                                }
+                                if (quoted) {
+                                        if (quoteInQuoted) {
+                                                quoteInQuoted = false;
+                                                if (c == QUOTE) {
+                                                        rows.append(c);
+                                                        continue;
+                                                }
+                                                quoted = false;
+                                        } else {
+                                                if (c == QUOTE) {
+                                                        quoteInQuoted = true;
+                                                } else {
+                                                        rows.append(c);
+                                                }
+                                                continue;
+                                        }
+                                }
+                                if (c == delimiter) {
+                                        rows.nextField();
+                                } else if (c == '\n') {
+                                        rows.endRow();
+                                } else if (c == QUOTE && rows.atFieldStart()) {
+                                        quoted = true;
+                                } else if (c != '\r') {
+                                        rows.append(c);
+                                }
+                        }
+                }
+                if (quoted && !quoteInQuoted) {
+                        throw new IllegalArgumentException("Unterminated quoted field at row " + rows.rowNumber + ".");
+                }
+                rows.endRow();
+
+                if (rows.invoices.isEmpty()) {
+                        throw new IllegalArgumentException("No invoice rows were detected in the file.");
+                }
+                return rows.invoices;
+        }
+
+        private static final class Rows {
+
+                private final char decimalSeparator;
+                private final List<InvoiceInput> invoices = new ArrayList<>();
+                // Both builders are reused for every row.
+                private final StringBuilder id = new StringBuilder();
+                private final StringBuilder amount = new StringBuilder();
+                private int column;
+                private boolean fieldStarted;
+                private boolean rowHasContent;
+                private boolean headerChecked;
+                private int rowNumber = 1;
+
+                private Rows(char decimalSeparator) {
+                        this.decimalSeparator = decimalSeparator;
+                }
+
+                private boolean atFieldStart() {
+                        return !fieldStarted;
+                }
+
+                private void append(char c) {
+                        fieldStarted = true;
+                        if (!Character.isWhitespace(c)) {
+                                rowHasContent = true;
+                        }
+                        if (column == 0) {
+                                id.append(c);
+                        } else if (column == 1) {
+                                amount.append(c);
+                        }
+                }
+
+                private void nextField() {
+                        column++;
+                        fieldStarted = false;
+                }
+
+                private void endRow() {
+                        if (rowHasContent) {
+                                addRow();
+                        }
+                        id.setLength(0);
+                        amount.setLength(0);
+                        column = 0;
+                        fieldStarted = false;
+                        rowHasContent = false;
+                        rowNumber++;
+                }
+
+                private void addRow() {
+                        String invoiceId = id.toString().trim();
+                        int start = 0;
+                        int end = amount.length();
+                        while (start < end && Character.isWhitespace(amount.charAt(start))) {
+                                start++;
+                        }
+                        while (end > start && Character.isWhitespace(amount.charAt(end - 1))) {
+                                end--;
+                        }
+
+                        if (!headerChecked) {
+                                headerChecked = true;
+                                if (ExcelInvoiceParser.looksLikeHeader(invoiceId, amount.substring(start, end))) {
+                                        return;
+                                }
+                        }
+                        if (invoiceId.isEmpty() || start == end) {
+                                throw new IllegalArgumentException("Each data row must contain both an invoice id and amount.");
+                        }
+                        invoices.add(new InvoiceInput(invoiceId, parseAmount(start, end)));
+                }
+
+                private BigDecimal parseAmount(int start, int end) {
+                        long unscaled = 0;
+                        int scale = 0;
+                        int digits = 0;
+                        boolean separatorSeen = false;
+                        try {
+                                for (int i = start; i < end; i++) {
+                                        char c = amount.charAt(i);
+                                        if (c >= '0' && c <= '9') {
+                                                unscaled = Math.addExact(Math.multiplyExact(unscaled, 10), c - '0');
+                                                digits++;
+                                                if (separatorSeen) {
+                                                        scale++;
+                                                }
+                                        } else if (c == decimalSeparator && !separatorSeen) {
+                                                separatorSeen = true;
+                                        } else {
+                                                throw invalidAmount(start, end);
+                                        }
+                                }
+                        } catch (ArithmeticException exception) {
+                                throw invalidAmount(start, end);
+                        }
+                        if (digits == 0) {
+                                throw invalidAmount(start, end);
+                        }
+                        return BigDecimal.valueOf(unscaled, scale);
+                }
+
+                private IllegalArgumentException invalidAmount(int start, int end) {
+                        return new IllegalArgumentException("Invalid amount at row " + rowNumber + ": " + amount.substring(start, end));
+                }
+        }
+}
@@ -0,0 +1,16 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.util.List;
+import java.util.Map;
+
+public record DistributedCombinationResult(
+        List<List<String>> combinations,
+        Map<String, InvoiceInput> invoiceById,
+        int partitionCount,
+        long nodesVisited,
+        Map<String, Integer> partitionsByWorker,
+        boolean truncated
+) {
+}
@@ -0,0 +1,196 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import com.invoicecombinationfinder.backend.dto.PartitionSearchRequest;
+import com.invoicecombinationfinder.backend.dto.PartitionSearchResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Coordinator for searches that are too large for one node. The search tree is split into
+ * {@code 2^prefix-length} partitions by fixing the include/exclude decisions for the smallest invoices, and each
+ * partition is sent to a worker (another instance of this service) via {@code POST /api/combinations/partitions}.
+ * The prefix is applied on the coordinator, so a worker only receives the invoices after the prefix together with
+ * the remaining target and filters, and partitions the prefix already settles are not sent at all. Partitions are
+ * assigned round-robin; a partition whose worker fails is retried on the next worker and finally searched locally.
+ * Each partition goes through admission control on the node that searches it. Results and progress are merged in
+ * the order in which partitions complete.
+ */
+@Service
+public class DistributedCombinationService {
+
+        static final String LOCAL_WORKER = "local";
+        private static final Logger log = LoggerFactory.getLogger(DistributedCombinationService.class);
+
+        private final CombinationService combinationService;
+        private final RestClient restClient;
+        private final List<String> workers;
+        private final int prefixLength;
+        private final ExecutorService executor;
+
+        public DistributedCombinationService(CombinationService combinationService,
+                                             RestClient.Builder restClientBuilder,
+                                             @Value("${combinations.distributed.workers:}") String workers,
+                                             @Value("${combinations.distributed.prefix-length:4}") int prefixLength,
+                                             @Value("${combinations.distributed.parallelism:8}") int parallelism,
+                                             @Value("${combinations.distributed.read-timeout:5m}") Duration readTimeout) {
+                if (prefixLength < 0 || prefixLength > SearchPartition.MAX_PREFIX_LENGTH) {
+                        throw new IllegalArgumentException("Partition prefix length must be between 0 and " + SearchPartition.MAX_PREFIX_LENGTH + ".");
+                }
+                if (parallelism <= 0) {
+                        throw new IllegalArgumentException("Distributed search parallelism must be greater than zero.");
+                }
+                JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+                requestFactory.setReadTimeout(readTimeout);
+                this.combinationService = combinationService;
+                this.restClient = restClientBuilder.requestFactory(requestFactory).build();
+                this.workers = Arrays.stream(workers.split(","))
+                        .map(String::trim)
+                        .filter(worker -> !worker.isEmpty())
+                        .map(worker -> worker.endsWith("/") ? worker.substring(0, worker.length() - 1) : worker)
+                        .toList();
+                this.prefixLength = prefixLength;
+                this.executor = Executors.newFixedThreadPool(parallelism);
+        }
+
+        public DistributedCombinationResult findCombinations(BigDecimal target,
+                                                             List<InvoiceInput> invoices,
+                                                             CombinationFilters filters) {
+                return findCombinations(target, invoices, filters, progress -> {
+                });
+        }
+
+        /**
+         * Runs the search and reports progress to the listener, on the calling thread, each time a partition
+         * completes.
+         */
+        public DistributedCombinationResult findCombinations(BigDecimal target,
+                                                             List<InvoiceInput> invoices,
+                                                             CombinationFilters filters,
+                                                             Consumer<DistributedSearchProgress> listener) {
+                PreparedSearch search = combinationService.prepare(target, invoices, filters);
+                int length = Math.min(prefixLength, search.invoices().size());
+                int partitionCount = 1 << length;
+
+                CompletionService<Dispatch> completionService = new ExecutorCompletionService<>(executor);
+                List<Future<Dispatch>> futures = new ArrayList<>(partitionCount);
+                for (int mask = 0; mask < partitionCount; mask++) {
+                        SearchPartition partition = new SearchPartition(length, mask);
+                        int sequence = mask;
+                        futures.add(completionService.submit(() -> dispatch(search, partition, sequence)));
+                }
+
+                List<List<String>> combinations = new ArrayList<>();
+                long nodesVisited = 0;
+                boolean truncated = false;
+                Map<String, Integer> partitionsByWorker = new TreeMap<>();
+                try {
+                        for (int completed = 1; completed <= partitionCount; completed++) {
+                                Dispatch dispatch = completionService.take().get();
+                                combinations.addAll(dispatch.result().combinations());
+                                nodesVisited += dispatch.result().nodesVisited();
+                                truncated |= dispatch.result().truncated();
+                                partitionsByWorker.merge(dispatch.worker(), 1, Integer::sum);
+                                log.debug("Distributed search progress: {}/{} partitions, partition {} done by {}",
+                                        completed, partitionCount, dispatch.partition().prefixMask(), dispatch.worker());
+                                listener.accept(new DistributedSearchProgress(completed,
+                                        partitionCount,
+                                        dispatch.partition(),
+                                        dispatch.worker(),
+                                        combinations.size(),
+                                        nodesVisited));
+                        }
+                } catch (InterruptedException exception) {
+                        futures.forEach(future -> future.cancel(true));
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Distributed search was interrupted.", exception);
+                } catch (ExecutionException exception) {
+                        futures.forEach(future -> future.cancel(true));
+                        if (exception.getCause() instanceof RuntimeException cause) {
+                                throw cause;
+                        }
+                        throw new IllegalStateException("Distributed search failed.", exception.getCause());
+                } catch (RuntimeException exception) {
+                        futures.forEach(future -> future.cancel(true));
+                        throw exception;
+                }
+
+                combinations.sort(CombinationSearch.resultOrder(search.invoices()));
+                return new DistributedCombinationResult(combinations,
+                        search.invoiceById(),
+                        partitionCount,
+                        nodesVisited,
+                        partitionsByWorker,
+                        truncated);
+        }
+
+        @PreDestroy
+        void shutdown() {
+                executor.shutdownNow();
+        }
+
+        private Dispatch dispatch(PreparedSearch search, SearchPartition partition, int sequence) {
+                PartitionSplit split = PartitionSplit.of(search, partition);
+                if (split.rest() == null) {
+                        return new Dispatch(partition, LOCAL_WORKER, split.settled());
+                }
+                PreparedSearch rest = split.rest();
+                PartitionSearchRequest request = new PartitionSearchRequest(rest.target(),
+                        rest.invoices(),
+                        rest.minInvoices(),
+                        rest.maxInvoices(),
+                        List.copyOf(rest.requiredInvoiceIds()),
+                        0,
+                        0);
+                for (int attempt = 0; attempt < workers.size(); attempt++) {
+                        String worker = workers.get((sequence + attempt) % workers.size());
+                        try {
+                                PartitionSearchResponse response = restClient.post()
+                                        .uri(worker + "/api/combinations/partitions")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .body(request)
+                                        .retrieve()
+                                        .body(PartitionSearchResponse.class);
+                                if (response != null) {
+                                        return new Dispatch(partition, worker, new PartitionResult(split.withPrefix(response.combinations()),
+                                                response.nodesVisited(),
+                                                response.truncated()));
+                                }
+                        } catch (RestClientException exception) {
+                                log.warn("Partition {} failed on worker {}: {}", partition.prefixMask(), worker, exception.getMessage());
+                        }
+                }
+                PartitionResult result = combinationService.findPartitionCombinations(rest.target(),
+                        rest.invoices(),
+                        new CombinationFilters(rest.minInvoices(), rest.maxInvoices(), rest.requiredInvoiceIds()),
+                        new SearchPartition(0, 0));
+                return new Dispatch(partition, LOCAL_WORKER, new PartitionResult(split.withPrefix(result.combinations()),
+                        result.nodesVisited(),
+                        result.truncated()));
+        }
+
+        private record Dispatch(SearchPartition partition, String worker, PartitionResult result) {
+        }
+}
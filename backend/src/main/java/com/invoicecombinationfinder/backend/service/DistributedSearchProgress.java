@@ -0,0 +1,15 @@
+package com.invoicecombinationfinder.backend.service;
+
+/**
+ * Progress of a distributed search after one more partition has completed. Counts are totals over all partitions
+ * completed so far.
+ */
+public record DistributedSearchProgress(
+        int completedPartitions,
+        int partitionCount,
+        SearchPartition partition,
+        String worker,
+        int combinationsFound,
+        long nodesVisited
+) {
+}
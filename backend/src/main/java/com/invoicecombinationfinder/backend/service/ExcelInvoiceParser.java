@@ -12,14 +12,26 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 @Component
 public class ExcelInvoiceParser {
 
+        public static final String ALL_SHEETS = "*";
         private static final String XLSX_EXTENSION = ".xlsx";
 
         public List<InvoiceInput> parse(MultipartFile file) {
+                return parseSheets(file, List.of()).get(0).invoices();
+        }
+
+        /**
+         * Parses the named sheets of the workbook, in workbook order; every named sheet must exist. No names selects
+         * the first sheet and {@link #ALL_SHEETS} selects every sheet, skipping those without invoice rows.
+         */
+        public List<SheetInvoices> parseSheets(MultipartFile file, Collection<String> sheetNames) {
                 if (file == null || file.isEmpty()) {
                         throw new IllegalArgumentException("Uploaded file is empty.");
                 }
@@ -30,49 +42,82 @@ public class ExcelInvoiceParser {
 
                 try (InputStream inputStream = file.getInputStream();
                      var workbook = WorkbookFactory.create(inputStream)) {
-                        Sheet sheet = workbook.getNumberOfSheets() > 0 ? workbook.getSheetAt(0) : null;
-                        if (sheet == null) {
+                        if (workbook.getNumberOfSheets() == 0) {
                                 throw new IllegalArgumentException("The Excel file does not contain any sheets.");
                         }
+                        if (sheetNames == null || sheetNames.isEmpty()) {
+                                Sheet sheet = workbook.getSheetAt(0);
+                                return List.of(new SheetInvoices(sheet.getSheetName(), parseSheet(sheet, true)));
+                        }
 
-                        DataFormatter formatter = new DataFormatter();
-                        List<InvoiceInput> invoices = new ArrayList<>();
-                        boolean headerSkipped = false;
+                        boolean allSheets = sheetNames.contains(ALL_SHEETS);
+                        if (!allSheets) {
+                                Set<String> present = new HashSet<>();
+                                workbook.forEach(sheet -> present.add(sheet.getSheetName()));
+                                List<String> missing = sheetNames.stream()
+                                        .filter(name -> !present.contains(name))
+                                        .distinct()
+                                        .toList();
+                                if (!missing.isEmpty()) {
+                                        throw new IllegalArgumentException("The Excel file does not contain the selected sheets: "
+                                                + String.join(", ", missing) + ".");
+                                }
+                        }
 
-                        for (Row row : sheet) {
-                                if (isRowEmpty(row)) {
-                                        continue;
+                        List<SheetInvoices> sheets = new ArrayList<>();
+                        for (Sheet sheet : workbook) {
+                                if (allSheets || sheetNames.contains(sheet.getSheetName())) {
+                                        List<InvoiceInput> invoices = parseSheet(sheet, !allSheets);
+                                        if (!invoices.isEmpty()) {
+                                                sheets.add(new SheetInvoices(sheet.getSheetName(), invoices));
+                                        }
                                 }
+                        }
+                        if (sheets.isEmpty()) {
+                                throw new IllegalArgumentException("No invoice rows were detected in the Excel file.");
+                        }
+                        return sheets;
+                } catch (IllegalArgumentException exception) {
+                        throw exception;
+                } catch (IOException exception) {
+                        throw new IllegalArgumentException("Unable to read the uploaded Excel file.", exception);
+                }
+        }
 
-                                String firstCellValue = formatter.formatCellValue(row.getCell(0)).trim();
-                                String secondCellValue = formatter.formatCellValue(row.getCell(1)).trim();
+        private List<InvoiceInput> parseSheet(Sheet sheet, boolean requireRows) {
+                DataFormatter formatter = new DataFormatter();
+                List<InvoiceInput> invoices = new ArrayList<>();
+                boolean headerSkipped = false;
 
-                                if (!headerSkipped && looksLikeHeader(firstCellValue, secondCellValue)) {
-                                        headerSkipped = true;
-                                        continue;
-                                }
+                for (Row row : sheet) {
+                        if (isRowEmpty(row)) {
+                                continue;
+                        }
 
-                                if (firstCellValue.isEmpty() || secondCellValue.isEmpty()) {
-                                        throw new IllegalArgumentException("Each data row must contain both an invoice id and amount.");
-                                }
+                        String firstCellValue = formatter.formatCellValue(row.getCell(0)).trim();
+                        String secondCellValue = formatter.formatCellValue(row.getCell(1)).trim();
 
-                                BigDecimal amount = parseAmount(secondCellValue, row.getRowNum() + 1);
-                                invoices.add(new InvoiceInput(firstCellValue, amount));
+                        if (!headerSkipped && looksLikeHeader(firstCellValue, secondCellValue)) {
+                                headerSkipped = true;
+                                continue;
                         }
 
-                        if (invoices.isEmpty()) {
-                                throw new IllegalArgumentException("No invoice rows were detected in the Excel sheet.");
+                        if (firstCellValue.isEmpty() || secondCellValue.isEmpty()) {
+                                throw new IllegalArgumentException("Each data row must contain both an invoice id and amount.");
                         }
 
-                        return invoices;
-                } catch (IllegalArgumentException exception) {
-                        throw exception;
-                } catch (IOException exception) {
-                        throw new IllegalArgumentException("Unable to read the uploaded Excel file.", exception);
+                        BigDecimal amount = parseAmount(secondCellValue, row.getRowNum() + 1);
+                        invoices.add(new InvoiceInput(firstCellValue, amount));
                 }
+
+                if (requireRows && invoices.isEmpty()) {
+                        throw new IllegalArgumentException("No invoice rows were detected in the Excel sheet.");
+                }
+
+                return invoices;
         }
 
-        private boolean looksLikeHeader(String firstCell, String secondCell) {
+        static boolean looksLikeHeader(String firstCell, String secondCell) {
                 String first = firstCell.toLowerCase();
                 String second = secondCell.toLowerCase();
                 return ("id".equals(first) || first.contains("invoice"))
@@ -0,0 +1,161 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parses several uploaded workbooks at once on a bounded pool and merges their invoices, in upload order, into one
+ * list. Each file is one task: opening an {@code .xlsx} workbook already parses all of its sheets, and a POI
+ * workbook must not be shared between threads, so the selected sheets of a file are read by the task that opened it.
+ * Because every workbook is held in memory while it is read, uploads are capped per file and in total far below the
+ * multipart limits, which are sized for the streaming CSV endpoint.
+ */
+@Service
+public class ExcelUploadService {
+
+        private static final int MAX_FILES = 32;
+
+        private final ExcelInvoiceParser excelInvoiceParser;
+        private final ExecutorService executor;
+        private final DataSize maxFileSize;
+        private final DataSize maxTotalSize;
+
+        public ExcelUploadService(ExcelInvoiceParser excelInvoiceParser,
+                                  @Value("${combinations.upload.parallelism:4}") int parallelism,
+                                  @Value("${combinations.upload.max-file-size:16MB}") DataSize maxFileSize,
+                                  @Value("${combinations.upload.max-total-size:64MB}") DataSize maxTotalSize) {
+                if (parallelism <= 0) {
+                        throw new IllegalArgumentException("Upload parallelism must be greater than zero.");
+                }
+                if (maxFileSize.toBytes() <= 0 || maxTotalSize.toBytes() <= 0) {
+                        throw new IllegalArgumentException("Upload size limits must be greater than zero.");
+                }
+                this.excelInvoiceParser = excelInvoiceParser;
+                this.executor = Executors.newFixedThreadPool(parallelism);
+                this.maxFileSize = maxFileSize;
+                this.maxTotalSize = maxTotalSize;
+        }
+
+        public ParsedUpload parse(List<MultipartFile> files, List<String> sheetNames) {
+                if (files == null || files.isEmpty()) {
+                        throw new IllegalArgumentException("At least one file is required.");
+                }
+                if (files.size() > MAX_FILES) {
+                        throw new IllegalArgumentException("At most " + MAX_FILES + " files can be uploaded at once.");
+                }
+                long totalSize = 0;
+                for (MultipartFile file : files) {
+                        if (file.getSize() > maxFileSize.toBytes()) {
+                                throw new IllegalArgumentException(file.getOriginalFilename() + " is larger than the " + describe(maxFileSize)
+                                        + " allowed per workbook.");
+                        }
+                        totalSize += file.getSize();
+                }
+                if (totalSize > maxTotalSize.toBytes()) {
+                        throw new IllegalArgumentException("The uploaded workbooks are larger than the " + describe(maxTotalSize)
+                                + " allowed together.");
+                }
+                List<String> selectedSheets = sheetNames == null ? List.of() : sheetNames.stream()
+                        .filter(name -> name != null && !name.isBlank())
+                        .map(String::trim)
+                        .toList();
+
+                List<Future<ParsedFile>> futures = new ArrayList<>(files.size());
+                for (MultipartFile file : files) {
+                        futures.add(executor.submit(() -> parseFile(file, selectedSheets, files.size() > 1)));
+                }
+
+                List<ParsedFile> parsedFiles = new ArrayList<>(files.size());
+                try {
+                        for (Future<ParsedFile> future : futures) {
+                                parsedFiles.add(future.get());
+                        }
+                } catch (InterruptedException exception) {
+                        futures.forEach(future -> future.cancel(true));
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Upload parsing was interrupted.", exception);
+                } catch (ExecutionException exception) {
+                        futures.forEach(future -> future.cancel(true));
+                        if (exception.getCause() instanceof RuntimeException cause) {
+                                throw cause;
+                        }
+                        throw new IllegalStateException("Upload parsing failed.", exception.getCause());
+                }
+
+                return merge(parsedFiles);
+        }
+
+        @PreDestroy
+        void shutdown() {
+                executor.shutdownNow();
+        }
+
+        private ParsedFile parseFile(MultipartFile file, List<String> sheetNames, boolean nameInErrors) {
+                long started = System.nanoTime();
+                List<SheetInvoices> sheets;
+                try {
+                        sheets = excelInvoiceParser.parseSheets(file, sheetNames);
+                } catch (IllegalArgumentException exception) {
+                        if (!nameInErrors) {
+                                throw exception;
+                        }
+                        throw new IllegalArgumentException(file.getOriginalFilename() + ": " + exception.getMessage(), exception);
+                }
+                long parseMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+                return new ParsedFile(file.getOriginalFilename(), sheets, parseMillis);
+        }
+
+        private ParsedUpload merge(List<ParsedFile> parsedFiles) {
+                List<InvoiceInput> invoices = new ArrayList<>();
+                List<FileParseReport> reports = new ArrayList<>(parsedFiles.size());
+                Map<String, String> sourceById = new HashMap<>();
+                for (ParsedFile parsedFile : parsedFiles) {
+                        int invoiceCount = 0;
+                        for (SheetInvoices sheet : parsedFile.sheets()) {
+                                String source = parsedFile.filename() + " (" + sheet.sheetName() + ")";
+                                for (InvoiceInput invoice : sheet.invoices()) {
+                                        String previous = sourceById.putIfAbsent(invoice.id(), source);
+                                        if (previous != null) {
+                                                throw new IllegalArgumentException(previous.equals(source)
+                                                        ? "Invoice " + invoice.id() + " appears more than once in " + source + "."
+                                                        : "Invoice " + invoice.id() + " appears in both " + previous + " and " + source + ".");
+                                        }
+                                        invoices.add(invoice);
+                                }
+                                invoiceCount += sheet.invoices().size();
+                        }
+                        reports.add(new FileParseReport(parsedFile.filename(),
+                                parsedFile.sheets().stream().map(SheetInvoices::sheetName).toList(),
+                                invoiceCount,
+                                parsedFile.parseMillis()));
+                }
+                return new ParsedUpload(invoices, reports);
+        }
+
+        private static String describe(DataSize size) {
+                if (size.toBytes() % DataSize.ofMegabytes(1).toBytes() == 0) {
+                        return size.toMegabytes() + "MB";
+                }
+                if (size.toBytes() % DataSize.ofKilobytes(1).toBytes() == 0) {
+                        return size.toKilobytes() + "KB";
+                }
+                return size.toBytes() + "B";
+        }
+
+        private record ParsedFile(String filename, List<SheetInvoices> sheets, long parseMillis) {
+        }
+}
@@ -0,0 +1,11 @@
+package com.invoicecombinationfinder.backend.service;
+
+import java.util.List;
+
+public record FileParseReport(
+        String filename,
+        List<String> sheets,
+        int invoiceCount,
+        long parseMillis
+) {
+}
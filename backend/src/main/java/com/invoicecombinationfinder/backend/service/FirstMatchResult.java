@@ -0,0 +1,15 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.util.List;
+import java.util.Map;
+
+public record FirstMatchResult(
+        List<String> combination,
+        Map<String, InvoiceInput> invoiceById,
+        boolean foundWithinBudget,
+        boolean noMatchExists,
+        long elapsedMillis
+) {
+}
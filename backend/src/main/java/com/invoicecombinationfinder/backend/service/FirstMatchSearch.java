@@ -0,0 +1,204 @@
+package com.invoicecombinationfinder.backend.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Looks for any one valid combination as fast as possible instead of enumerating all of them. Required invoices are
+ * taken up front, then a greedy largest-first pass is tried, followed by depth-first searches over the remaining
+ * invoices that try large amounts first and prune branches whose remaining invoices cannot reach the target. The
+ * first depth-first pass is strictly largest-first; each restart perturbs the order randomly and doubles the node
+ * limit, so the search keeps diversifying while still being able to run to completion and prove there is no match.
+ */
+final class FirstMatchSearch {
+
+        private static final long INITIAL_NODE_LIMIT = 1_000;
+        private static final long DEADLINE_CHECK_INTERVAL = 0x3FF;
+
+        private final PreparedSearch search;
+        private final long[] amounts;
+        private final long target;
+        private final Random random;
+        private final long deadline;
+        private final long initialNodeLimit;
+
+        private int[] stack;
+        private int depth;
+        private boolean complete;
+
+        FirstMatchSearch(PreparedSearch search, ScaledAmounts scaled, Random random, long deadline) {
+                this(search, scaled, random, deadline, INITIAL_NODE_LIMIT);
+        }
+
+        FirstMatchSearch(PreparedSearch search, ScaledAmounts scaled, Random random, long deadline, long initialNodeLimit) {
+                this.search = search;
+                this.amounts = scaled.amounts();
+                this.target = scaled.target();
+                this.random = random;
+                this.deadline = deadline;
+                this.initialNodeLimit = initialNodeLimit;
+        }
+
+        /**
+         * Returns the positions (in the sorted invoice list) of a matching combination in ascending order, or
+         * {@code null} if none was found. {@link #isComplete()} tells whether {@code null} proves that none exists.
+         */
+        int[] run() {
+                List<Integer> forced = new ArrayList<>();
+                boolean[] isForced = new boolean[amounts.length];
+                Set<String> seen = new HashSet<>();
+                for (int i = 0; i < amounts.length; i++) {
+                        String id = search.invoices().get(i).id();
+                        if (search.requiredInvoiceIds().contains(id) && seen.add(id)) {
+                                forced.add(i);
+                                isForced[i] = true;
+                        }
+                }
+                long remaining = target;
+                for (int index : forced) {
+                        remaining -= amounts[index];
+                }
+                int maximum = search.maxInvoices() == null ? amounts.length : search.maxInvoices();
+                int maximumRest = maximum - forced.size();
+                int minimumRest = search.minInvoices() - forced.size();
+                if (remaining < 0 || maximumRest < 0) {
+                        complete = true;
+                        return null;
+                }
+                if (remaining == 0) {
+                        complete = true;
+                        return minimumRest <= 0 ? toArray(forced, new int[0], 0) : null;
+                }
+
+                int[] descending = IntStream.range(0, amounts.length)
+                        .filter(index -> !isForced[index])
+                        .boxed()
+                        .sorted(Comparator.comparingLong((Integer index) -> amounts[index]).reversed())
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+
+                int[] greedy = greedy(descending, remaining, minimumRest, maximumRest);
+                if (greedy != null) {
+                        return toArray(forced, greedy, greedy.length);
+                }
+
+                int[] order = descending;
+                for (long nodeLimit = initialNodeLimit; ; nodeLimit = nodeLimit >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE : nodeLimit * 2) {
+                        Outcome outcome = depthFirst(order, remaining, minimumRest, maximumRest, nodeLimit);
+                        if (outcome == Outcome.FOUND) {
+                                int[] chosen = new int[depth];
+                                for (int i = 0; i < depth; i++) {
+                                        chosen[i] = order[stack[i]];
+                                }
+                                return toArray(forced, chosen, depth);
+                        }
+                        if (outcome == Outcome.EXHAUSTED) {
+                                complete = true;
+                                return null;
+                        }
+                        if (outOfTime()) {
+                                return null;
+                        }
+                        order = perturbed(descending);
+                }
+        }
+
+        boolean isComplete() {
+                return complete;
+        }
+
+        private int[] greedy(int[] descending, long remaining, int minimumRest, int maximumRest) {
+                int[] chosen = new int[Math.min(descending.length, maximumRest)];
+                int count = 0;
+                for (int index : descending) {
+                        if (count == chosen.length || remaining == 0) {
+                                break;
+                        }
+                        if (amounts[index] <= remaining) {
+                                chosen[count++] = index;
+                                remaining -= amounts[index];
+                        }
+                }
+                return remaining == 0 && count >= minimumRest ? Arrays.copyOf(chosen, count) : null;
+        }
+
+        private Outcome depthFirst(int[] order, long remaining, int minimumRest, int maximumRest, long nodeLimit) {
+                int n = order.length;
+                long[] suffix = new long[n + 1];
+                for (int i = n - 1; i >= 0; i--) {
+                        suffix[i] = suffix[i + 1] + amounts[order[i]];
+                }
+                stack = new int[Math.min(n, maximumRest)];
+                depth = 0;
+                int next = 0;
+                long nodes = 0;
+
+                while (true) {
+                        if (remaining > 0 && depth < stack.length) {
+                                int position = next;
+                                while (position < n && amounts[order[position]] > remaining && suffix[position] >= remaining) {
+                                        position++;
+                                }
+                                if (position < n && suffix[position] >= remaining) {
+                                        stack[depth++] = position;
+                                        remaining -= amounts[order[position]];
+                                        next = position + 1;
+                                        nodes++;
+                                        // A match found on the last allowed node still counts.
+                                        if (remaining == 0 && depth >= minimumRest) {
+                                                return Outcome.FOUND;
+                                        }
+                                        if (nodes >= nodeLimit || ((nodes & DEADLINE_CHECK_INTERVAL) == 0 && outOfTime())) {
+                                                return Outcome.LIMITED;
+                                        }
+                                        continue;
+                                }
+                        }
+                        if (depth == 0) {
+                                return Outcome.EXHAUSTED;
+                        }
+                        int position = stack[--depth];
+                        remaining += amounts[order[position]];
+                        next = position + 1;
+                }
+        }
+
+        // Largest-first with random noise, so restarts explore different regions of the tree.
+        private int[] perturbed(int[] descending) {
+                double[] keys = new double[amounts.length];
+                for (int index : descending) {
+                        keys[index] = amounts[index] * (0.5 + random.nextDouble());
+                }
+                return Arrays.stream(descending)
+                        .boxed()
+                        .sorted(Comparator.comparingDouble((Integer index) -> keys[index]).reversed())
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+        }
+
+        private boolean outOfTime() {
+                return System.nanoTime() - deadline >= 0 || Thread.currentThread().isInterrupted();
+        }
+
+        private static int[] toArray(List<Integer> forced, int[] chosen, int count) {
+                int[] combination = new int[forced.size() + count];
+                for (int i = 0; i < forced.size(); i++) {
+                        combination[i] = forced.get(i);
+                }
+                System.arraycopy(chosen, 0, combination, forced.size(), count);
+                Arrays.sort(combination);
+                return combination;
+        }
+
+        private enum Outcome {
+                FOUND,
+                EXHAUSTED,
+                LIMITED
+        }
+}
@@ -0,0 +1,141 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Non-recursive search for small invoice lists. Subsets are visited in Gray-code order over a {@code long} bitmask,
+ * so each step toggles exactly one invoice and updates the running sum (amounts scaled to a common number of
+ * decimals and held as {@code long}) and the invoice count by a single element. Every subset is checked, which is
+ * cheaper than backtracking with {@code BigDecimal} arithmetic unless pruning leaves the backtracking search far
+ * smaller than {@code 2^n}.
+ */
+final class GrayCodeSubsetEnumerator {
+
+        static final int MAX_INVOICES = 24;
+        private static final long CANCELLATION_CHECK_INTERVAL = 0xFFFF;
+        // A backtracking node costs several steps here, and the random-descent estimate runs low on dense searches,
+        // so backtracking only wins when its estimate is far below the number of steps.
+        private static final double BACKTRACKING_NODE_COST = 64;
+        // Below this many steps, enumerating is quicker than estimating the backtracking search.
+        private static final long ALWAYS_ENUMERATE_STEPS = 1L << 16;
+
+        private final List<InvoiceInput> invoices;
+        private final long[] amounts;
+        private final long target;
+        private final int minInvoices;
+        private final int maxInvoices;
+        private final long requiredMask;
+
+        private GrayCodeSubsetEnumerator(PreparedSearch search, long[] amounts, long target, long requiredMask) {
+                this.invoices = search.invoices();
+                this.amounts = amounts;
+                this.target = target;
+                this.minInvoices = search.minInvoices();
+                this.maxInvoices = search.maxInvoices() == null ? invoices.size() : search.maxInvoices();
+                this.requiredMask = requiredMask;
+        }
+
+        /**
+         * Returns an enumerator for the search, or {@code null} if it is too large for exhaustive enumeration, the
+         * amounts cannot be represented as scaled {@code long} values, or a required id appears more than once.
+         */
+        static GrayCodeSubsetEnumerator forSearch(PreparedSearch search) {
+                List<InvoiceInput> invoices = search.invoices();
+                if (invoices.size() > MAX_INVOICES) {
+                        return null;
+                }
+                ScaledAmounts scaled = ScaledAmounts.of(search.target(), invoices);
+                if (scaled == null) {
+                        return null;
+                }
+                long requiredMask = 0;
+                for (int i = 0; i < invoices.size(); i++) {
+                        if (search.requiredInvoiceIds().contains(invoices.get(i).id())) {
+                                requiredMask |= 1L << i;
+                        }
+                }
+                if (Long.bitCount(requiredMask) != search.requiredInvoiceIds().size()) {
+                        return null;
+                }
+                return new GrayCodeSubsetEnumerator(search, scaled.amounts(), scaled.target(), requiredMask);
+        }
+
+        long steps() {
+                return (1L << amounts.length) - 1;
+        }
+
+        /**
+         * Whether enumerating is cheaper than the backtracking search. The estimate of the backtracking search is
+         * only requested for lists large enough for the choice to matter.
+         */
+        boolean isCheaperThan(Supplier<SearchEstimate> backtracking) {
+                return steps() < ALWAYS_ENUMERATE_STEPS
+                        || backtracking.get().estimatedNodes() * BACKTRACKING_NODE_COST >= steps();
+        }
+
+        List<List<String>> enumerate() {
+                int n = amounts.length;
+                long[] hits = new long[16];
+                int hitCount = 0;
+
+                long mask = 0;
+                long sum = 0;
+                int count = 0;
+                for (long step = 1; step < 1L << n; step++) {
+                        int bit = Long.numberOfTrailingZeros(step);
+                        mask ^= 1L << bit;
+                        // +1 when the invoice was just added, -1 when it was just removed.
+                        long sign = ((mask >>> bit) & 1L) * 2 - 1;
+                        sum += sign * amounts[bit];
+                        count += (int) sign;
+
+                        boolean hit = (sum == target)
+                                & (count >= minInvoices)
+                                & (count <= maxInvoices)
+                                & ((mask & requiredMask) == requiredMask);
+                        if (hit) {
+                                if (hitCount == hits.length) {
+                                        hits = Arrays.copyOf(hits, hitCount * 2);
+                                }
+                                hits[hitCount++] = mask;
+                        }
+                        if ((step & CANCELLATION_CHECK_INTERVAL) == 0 && Thread.currentThread().isInterrupted()) {
+                                throw new CancellationException("Search was cancelled.");
+                        }
+                }
+
+                return Arrays.stream(hits, 0, hitCount)
+                        .boxed()
+                        .sorted(GrayCodeSubsetEnumerator::compareMasks)
+                        .map(this::toCombination)
+                        .toList();
+        }
+
+        /**
+         * Orders masks like {@link CombinationSearch} orders its results: by the invoice positions, lexicographically.
+         * The lowest differing bit decides, and the mask containing it comes first. One mask cannot be a proper
+         * prefix of another because both sum to the same positive target.
+         */
+        private static int compareMasks(long left, long right) {
+                long difference = left ^ right;
+                if (difference == 0) {
+                        return 0;
+                }
+                long lowest = difference & -difference;
+                return (left & lowest) != 0 ? -1 : 1;
+        }
+
+        private List<String> toCombination(long mask) {
+                List<String> combination = new ArrayList<>(Long.bitCount(mask));
+                for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+                        combination.add(invoices.get(Long.numberOfTrailingZeros(remaining)).id());
+                }
+                return List.copyOf(combination);
+        }
+}
@@ -0,0 +1,275 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import com.invoicecombinationfinder.backend.exception.SearchBudgetExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Keeps registered invoice sets together with the results of the searches run against them. When invoices are
+ * added, only combinations that use at least one new invoice are searched for and merged in; when invoices are
+ * removed, the combinations containing them are dropped. Cached results therefore stay identical to what a full
+ * search over the current invoices would return, without rerunning it. All searches go through admission control;
+ * a result that is truncated is returned but not cached, and a cached result whose incremental update would be
+ * truncated or rejected is dropped, to be searched again in full on the next request.
+ */
+@Service
+public class InvoiceSetService {
+
+        // Each non-empty subset of the added invoices costs one search over the existing ones.
+        private static final int MAX_INCREMENTAL_ADDITIONS = 12;
+        private static final int MAX_CACHED_SEARCHES_PER_SET = 16;
+
+        private final CombinationService combinationService;
+        private final Map<String, InvoiceSet> invoiceSets;
+
+        public InvoiceSetService(CombinationService combinationService,
+                                 @Value("${combinations.invoice-sets.capacity:64}") int capacity) {
+                if (capacity <= 0) {
+                        throw new IllegalArgumentException("Invoice set capacity must be greater than zero.");
+                }
+                this.combinationService = combinationService;
+                this.invoiceSets = boundedMap(capacity);
+        }
+
+        public InvoiceSetSummary register(List<InvoiceInput> invoices) {
+                InvoiceSet invoiceSet = new InvoiceSet();
+                invoiceSet.add(sanitize(invoices));
+                String id = UUID.randomUUID().toString();
+                synchronized (invoiceSets) {
+                        invoiceSets.put(id, invoiceSet);
+                }
+                return new InvoiceSetSummary(id, invoiceSet.invoices.size());
+        }
+
+        public InvoiceSetSummary addInvoices(String setId, List<InvoiceInput> invoices) {
+                List<InvoiceInput> added = sanitize(invoices);
+                InvoiceSet invoiceSet = lookup(setId);
+                synchronized (invoiceSet) {
+                        List<InvoiceInput> existing = invoiceSet.sortedInvoices();
+                        invoiceSet.add(added);
+                        List<InvoiceInput> current = invoiceSet.sortedInvoices();
+                        if (added.size() > MAX_INCREMENTAL_ADDITIONS) {
+                                invoiceSet.results.clear();
+                        } else {
+                                List<InvoiceInput> sortedAdded = added.stream().sorted(CombinationService.INVOICE_ORDER).toList();
+                                Iterator<Map.Entry<SearchKey, List<List<String>>>> entries = invoiceSet.results.entrySet().iterator();
+                                while (entries.hasNext()) {
+                                        Map.Entry<SearchKey, List<List<String>>> entry = entries.next();
+                                        List<List<String>> additions = combinationsWithAdditions(entry.getKey(), existing, sortedAdded);
+                                        if (additions == null) {
+                                                entries.remove();
+                                                continue;
+                                        }
+                                        List<List<String>> merged = new ArrayList<>(entry.getValue());
+                                        merged.addAll(additions);
+                                        merged.sort(CombinationSearch.resultOrder(current));
+                                        entry.setValue(List.copyOf(merged));
+                                }
+                        }
+                        return new InvoiceSetSummary(setId, invoiceSet.invoices.size());
+                }
+        }
+
+        public InvoiceSetSummary removeInvoices(String setId, Collection<String> invoiceIds) {
+                if (invoiceIds == null || invoiceIds.isEmpty()) {
+                        throw new IllegalArgumentException("At least one invoice id is required.");
+                }
+                Set<String> removed = new LinkedHashSet<>();
+                invoiceIds.forEach(id -> {
+                        if (id == null || id.isBlank()) {
+                                throw new IllegalArgumentException("Invoice id is required.");
+                        }
+                        removed.add(id.trim());
+                });
+
+                InvoiceSet invoiceSet = lookup(setId);
+                synchronized (invoiceSet) {
+                        for (String id : removed) {
+                                if (!invoiceSet.invoices.containsKey(id)) {
+                                        throw new IllegalArgumentException("Invoice " + id + " is not part of the invoice set.");
+                                }
+                        }
+                        invoiceSet.invoices.keySet().removeAll(removed);
+                        invoiceSet.results.keySet().removeIf(key ->
+                                !Collections.disjoint(key.filters().requiredInvoiceIds(), removed));
+                        invoiceSet.results.replaceAll((key, combinations) -> combinations.stream()
+                                .filter(combination -> Collections.disjoint(combination, removed))
+                                .toList());
+                        return new InvoiceSetSummary(setId, invoiceSet.invoices.size());
+                }
+        }
+
+        public void delete(String setId) {
+                synchronized (invoiceSets) {
+                        if (setId == null || invoiceSets.remove(setId) == null) {
+                                throw new IllegalArgumentException("Unknown invoice set.");
+                        }
+                }
+        }
+
+        public CombinationResult findCombinations(String setId, BigDecimal target, CombinationFilters filters) {
+                CombinationFilters effectiveFilters = filters == null ? CombinationFilters.empty() : filters;
+                InvoiceSet invoiceSet = lookup(setId);
+                synchronized (invoiceSet) {
+                        PreparedSearch search = combinationService.prepare(target, invoiceSet.sortedInvoices(), effectiveFilters);
+                        SearchKey key = new SearchKey(target.stripTrailingZeros(), effectiveFilters);
+                        List<List<String>> combinations = invoiceSet.results.get(key);
+                        if (combinations != null) {
+                                return new CombinationResult(combinations, search.invoiceById());
+                        }
+                        try (SearchAdmissionPolicy.Admission admission = combinationService.admit(search)) {
+                                CombinationSearch combinationSearch = new CombinationSearch(search);
+                                combinations = combinationSearch.next(Integer.MAX_VALUE, admission.nodeBudget());
+                                if (combinationSearch.isExhausted()) {
+                                        invoiceSet.results.put(key, combinations);
+                                }
+                                return new CombinationResult(combinations, search.invoiceById(), !combinationSearch.isExhausted());
+                        }
+                }
+        }
+
+        /**
+         * Returns the combinations that use at least one of the added invoices, or {@code null} if one of the
+         * searches needed for them was truncated or rejected by admission control.
+         */
+        private List<List<String>> combinationsWithAdditions(SearchKey key,
+                                                            List<InvoiceInput> existing,
+                                                            List<InvoiceInput> added) {
+                int minimum = key.filters().minInvoices() != null ? key.filters().minInvoices() : 1;
+                Integer maximum = key.filters().maxInvoices();
+                Set<String> required = key.filters().requiredInvoiceIds();
+                List<List<String>> combinations = new ArrayList<>();
+
+                for (int mask = 1; mask < 1 << added.size(); mask++) {
+                        List<String> chosen = new ArrayList<>();
+                        BigDecimal sum = BigDecimal.ZERO;
+                        boolean skipsRequired = false;
+                        for (int i = 0; i < added.size(); i++) {
+                                InvoiceInput invoice = added.get(i);
+                                if ((mask & 1 << i) != 0) {
+                                        chosen.add(invoice.id());
+                                        sum = sum.add(invoice.amount());
+                                } else if (required.contains(invoice.id())) {
+                                        skipsRequired = true;
+                                }
+                        }
+                        if (skipsRequired
+                                || sum.compareTo(key.target()) > 0
+                                || (maximum != null && chosen.size() > maximum)) {
+                                continue;
+                        }
+
+                        Set<String> remainingRequired = new HashSet<>(required);
+                        chosen.forEach(remainingRequired::remove);
+                        BigDecimal remaining = key.target().subtract(sum);
+                        if (remaining.signum() == 0) {
+                                if (chosen.size() >= minimum && remainingRequired.isEmpty()) {
+                                        combinations.add(List.copyOf(chosen));
+                                }
+                                continue;
+                        }
+                        Integer remainingMaximum = maximum == null ? null : maximum - chosen.size();
+                        if (remainingMaximum != null && remainingMaximum == 0) {
+                                continue;
+                        }
+
+                        PreparedSearch rest = new PreparedSearch(remaining,
+                                existing,
+                                Math.max(1, minimum - chosen.size()),
+                                remainingMaximum,
+                                remainingRequired);
+                        List<List<String>> partials;
+                        try (SearchAdmissionPolicy.Admission admission = combinationService.admit(rest)) {
+                                CombinationSearch search = new CombinationSearch(rest);
+                                partials = search.next(Integer.MAX_VALUE, admission.nodeBudget());
+                                if (!search.isExhausted()) {
+                                        return null;
+                                }
+                        } catch (SearchBudgetExceededException exception) {
+                                return null;
+                        }
+                        for (List<String> partial : partials) {
+                                List<String> combination = new ArrayList<>(partial);
+                                combination.addAll(chosen);
+                                combinations.add(combination);
+                        }
+                }
+
+                List<InvoiceInput> current = new ArrayList<>(existing);
+                current.addAll(added);
+                current.sort(CombinationService.INVOICE_ORDER);
+                Map<String, Integer> positions = new LinkedHashMap<>();
+                for (int i = 0; i < current.size(); i++) {
+                        positions.put(current.get(i).id(), i);
+                }
+                return combinations.stream()
+                        .map(combination -> combination.stream()
+                                .sorted((left, right) -> Integer.compare(positions.get(left), positions.get(right)))
+                                .toList())
+                        .toList();
+        }
+
+        private List<InvoiceInput> sanitize(List<InvoiceInput> invoices) {
+                if (invoices == null || invoices.isEmpty()) {
+                        throw new IllegalArgumentException("At least one invoice is required.");
+                }
+                return combinationService.sanitizeInvoices(invoices);
+        }
+
+        private InvoiceSet lookup(String setId) {
+                InvoiceSet invoiceSet;
+                synchronized (invoiceSets) {
+                        invoiceSet = setId == null ? null : invoiceSets.get(setId);
+                }
+                if (invoiceSet == null) {
+                        throw new IllegalArgumentException("Unknown invoice set.");
+                }
+                return invoiceSet;
+        }
+
+        private static <K, V> Map<K, V> boundedMap(int capacity) {
+                return new LinkedHashMap<>(16, 0.75f, true) {
+                        @Override
+                        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                                return size() > capacity;
+                        }
+                };
+        }
+
+        private record SearchKey(BigDecimal target, CombinationFilters filters) {
+        }
+
+        private static final class InvoiceSet {
+
+                private final Map<String, InvoiceInput> invoices = new LinkedHashMap<>();
+                private final Map<SearchKey, List<List<String>>> results = boundedMap(MAX_CACHED_SEARCHES_PER_SET);
+
+                private void add(List<InvoiceInput> added) {
+                        Set<String> seen = new HashSet<>();
+                        for (InvoiceInput invoice : added) {
+                                if (invoices.containsKey(invoice.id()) || !seen.add(invoice.id())) {
+                                        throw new IllegalArgumentException("Invoice " + invoice.id() + " is already part of the invoice set.");
+                                }
+                        }
+                        added.forEach(invoice -> invoices.put(invoice.id(), invoice));
+                }
+
+                private List<InvoiceInput> sortedInvoices() {
+                        return invoices.values().stream().sorted(CombinationService.INVOICE_ORDER).toList();
+                }
+        }
+}
@@ -0,0 +1,7 @@
+package com.invoicecombinationfinder.backend.service;
+
+public record InvoiceSetSummary(
+        String id,
+        int invoiceCount
+) {
+}
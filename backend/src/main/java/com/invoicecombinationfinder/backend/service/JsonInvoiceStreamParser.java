@@ -0,0 +1,178 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads a combination request (the same JSON as {@code POST /api/combinations}) token by token. Invoices are
+ * validated and trimmed as they are read, and the first invalid one fails the request with its index, so large
+ * payloads are neither bound to an intermediate request object nor validated and copied a second time.
+ */
+@Component
+public class JsonInvoiceStreamParser {
+
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private final JsonFactory jsonFactory = new JsonFactory();
+
+        public StreamedCombinationRequest parse(InputStream body) {
+                if (body == null) {
+                        throw new IllegalArgumentException("Request body is required.");
+                }
+                try (JsonParser parser = jsonFactory.createParser(body)) {
+                        if (parser.nextToken() != JsonToken.START_OBJECT) {
+                                throw new IllegalArgumentException("Request body must be a JSON object.");
+                        }
+
+                        BigDecimal target = null;
+                        List<InvoiceInput> invoices = null;
+                        Integer minInvoices = null;
+                        Integer maxInvoices = null;
+                        Set<String> requiredInvoiceIds = null;
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                String field = parser.currentName();
+                                parser.nextToken();
+                                switch (field) {
+                                        case "target" -> target = readAmount(parser, "Target amount");
+                                        case "invoices" -> invoices = readInvoices(parser);
+                                        case "minInvoices" -> minInvoices = readCount(parser, "Minimum invoice count");
+                                        case "maxInvoices" -> maxInvoices = readCount(parser, "Maximum invoice count");
+                                        case "requiredInvoiceIds" -> requiredInvoiceIds = readRequiredIds(parser);
+                                        default -> parser.skipChildren();
+                                }
+                        }
+
+                        if (target == null) {
+                                throw new IllegalArgumentException("Target amount is required.");
+                        }
+                        if (target.signum() <= 0) {
+                                throw new IllegalArgumentException("Target amount must be greater than zero.");
+                        }
+                        if (invoices == null || invoices.isEmpty()) {
+                                throw new IllegalArgumentException("At least one invoice is required.");
+                        }
+                        return new StreamedCombinationRequest(target,
+                                invoices,
+                                new CombinationFilters(minInvoices, maxInvoices, requiredInvoiceIds));
+                } catch (JsonProcessingException exception) {
+                        throw new IllegalArgumentException("Malformed JSON: " + exception.getOriginalMessage(), exception);
+                } catch (IOException exception) {
+                        throw new IllegalArgumentException("Unable to read the request body.", exception);
+                }
+        }
+
+        private List<InvoiceInput> readInvoices(JsonParser parser) throws IOException {
+                if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                        return null;
+                }
+                if (parser.currentToken() != JsonToken.START_ARRAY) {
+                        throw new IllegalArgumentException("Invoices must be a JSON array.");
+                }
+                List<InvoiceInput> invoices = new ArrayList<>(INITIAL_CAPACITY);
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        invoices.add(readInvoice(parser, invoices.size()));
+                }
+                return invoices;
+        }
+
+        private InvoiceInput readInvoice(JsonParser parser, int index) throws IOException {
+                if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        throw invalidInvoice(index, "must be a JSON object.");
+                }
+                String id = null;
+                BigDecimal amount = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String field = parser.currentName();
+                        JsonToken value = parser.nextToken();
+                        if ("id".equals(field)) {
+                                if (value != JsonToken.VALUE_NULL) {
+                                        if (!value.isScalarValue()) {
+                                                throw invalidInvoice(index, "id must be a string.");
+                                        }
+                                        id = parser.getValueAsString();
+                                }
+                        } else if ("amount".equals(field)) {
+                                amount = readAmount(parser, "Invoice at index " + index + ": amount");
+                        } else {
+                                parser.skipChildren();
+                        }
+                }
+                if (id == null || id.isBlank()) {
+                        throw invalidInvoice(index, "id is required.");
+                }
+                if (amount == null) {
+                        throw invalidInvoice(index, "amount is required.");
+                }
+                if (amount.signum() <= 0) {
+                        throw invalidInvoice(index, "amount must be greater than zero.");
+                }
+                return new InvoiceInput(id.trim(), amount);
+        }
+
+        private BigDecimal readAmount(JsonParser parser, String name) throws IOException {
+                JsonToken token = parser.currentToken();
+                if (token == JsonToken.VALUE_NULL) {
+                        return null;
+                }
+                if (token.isNumeric()) {
+                        return parser.getDecimalValue();
+                }
+                if (token == JsonToken.VALUE_STRING) {
+                        try {
+                                return new BigDecimal(parser.getText().trim());
+                        } catch (NumberFormatException exception) {
+                                throw new IllegalArgumentException(name + " must be a number.");
+                        }
+                }
+                throw new IllegalArgumentException(name + " must be a number.");
+        }
+
+        private Integer readCount(JsonParser parser, String name) throws IOException {
+                JsonToken token = parser.currentToken();
+                if (token == JsonToken.VALUE_NULL) {
+                        return null;
+                }
+                if (token != JsonToken.VALUE_NUMBER_INT) {
+                        throw new IllegalArgumentException(name + " must be a whole number.");
+                }
+                int value = parser.getIntValue();
+                if (value <= 0) {
+                        throw new IllegalArgumentException(name + " must be greater than zero.");
+                }
+                return value;
+        }
+
+        private Set<String> readRequiredIds(JsonParser parser) throws IOException {
+                if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                        return null;
+                }
+                if (parser.currentToken() != JsonToken.START_ARRAY) {
+                        throw new IllegalArgumentException("Required invoice ids must be a JSON array.");
+                }
+                Set<String> ids = new LinkedHashSet<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        String id = parser.currentToken().isScalarValue() ? parser.getValueAsString() : null;
+                        if (id == null || id.isBlank()) {
+                                throw new IllegalArgumentException("Required invoice ids cannot be blank.");
+                        }
+                        ids.add(id.trim());
+                }
+                return ids;
+        }
+
+        private static IllegalArgumentException invalidInvoice(int index, String problem) {
+                return new IllegalArgumentException("Invoice at index " + index + ": " + problem);
+        }
+}
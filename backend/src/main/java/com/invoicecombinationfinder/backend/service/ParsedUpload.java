@@ -0,0 +1,11 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.util.List;
+
+public record ParsedUpload(
+        List<InvoiceInput> invoices,
+        List<FileParseReport> files
+) {
+}
@@ -0,0 +1,13 @@
+package com.invoicecombinationfinder.backend.service;
+
+import java.util.List;
+
+public record PartitionResult(
+        List<List<String>> combinations,
+        long nodesVisited,
+        boolean truncated
+) {
+        public PartitionResult(List<List<String>> combinations, long nodesVisited) {
+                this(combinations, nodesVisited, false);
+        }
+}
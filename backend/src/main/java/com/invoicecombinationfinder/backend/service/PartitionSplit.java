@@ -0,0 +1,92 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A partition with its prefix decisions applied: the invoices the prefix includes, and the search that is left over
+ * the invoices after the prefix, with the target and filters reduced accordingly. {@code rest} is {@code null} when
+ * the prefix settles the partition on its own, including when the invoices after it cannot add up to what is left;
+ * {@code prefixMatches} then tells whether the included invoices are themselves a combination.
+ */
+record PartitionSplit(
+        List<String> included,
+        PreparedSearch rest,
+        boolean prefixMatches
+) {
+        static PartitionSplit of(PreparedSearch search, SearchPartition partition) {
+                List<InvoiceInput> sorted = search.invoices();
+                if (partition.prefixLength() > sorted.size()) {
+                        throw new IllegalArgumentException("Partition prefix is longer than the invoice list.");
+                }
+
+                List<String> included = new ArrayList<>();
+                BigDecimal remaining = search.target();
+                Set<String> remainingRequired = new HashSet<>(search.requiredInvoiceIds());
+                for (int i = 0; i < partition.prefixLength(); i++) {
+                        InvoiceInput invoice = sorted.get(i);
+                        if (partition.includes(i)) {
+                                included.add(invoice.id());
+                                remaining = remaining.subtract(invoice.amount());
+                                remainingRequired.remove(invoice.id());
+                        }
+                }
+                List<String> prefix = List.copyOf(included);
+                List<InvoiceInput> suffix = sorted.subList(partition.prefixLength(), sorted.size());
+                boolean requiredExcluded = !suffix.stream()
+                        .map(InvoiceInput::id)
+                        .collect(Collectors.toSet())
+                        .containsAll(remainingRequired);
+                Integer maximum = search.maxInvoices();
+                if (remaining.signum() < 0 || requiredExcluded || (maximum != null && prefix.size() > maximum)) {
+                        return new PartitionSplit(prefix, null, false);
+                }
+                if (remaining.signum() == 0) {
+                        boolean matches = !prefix.isEmpty()
+                                && prefix.size() >= search.minInvoices()
+                                && remainingRequired.isEmpty();
+                        return new PartitionSplit(prefix, null, matches);
+                }
+                if (maximum != null && prefix.size() == maximum) {
+                        return new PartitionSplit(prefix, null, false);
+                }
+                BigDecimal suffixTotal = suffix.stream()
+                        .map(InvoiceInput::amount)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                if (suffixTotal.compareTo(remaining) < 0) {
+                        return new PartitionSplit(prefix, null, false);
+                }
+
+                return new PartitionSplit(prefix, new PreparedSearch(remaining,
+                        suffix,
+                        Math.max(1, search.minInvoices() - prefix.size()),
+                        maximum == null ? null : maximum - prefix.size(),
+                        Set.copyOf(remainingRequired)), false);
+        }
+
+        /**
+         * The partition's result when {@code rest} is {@code null}.
+         */
+        PartitionResult settled() {
+                return new PartitionResult(prefixMatches ? List.of(included) : List.of(), 0);
+        }
+
+        /**
+         * Completes combinations found by searching {@code rest} with the invoices included by the prefix.
+         */
+        List<List<String>> withPrefix(List<List<String>> partials) {
+                List<List<String>> combinations = new ArrayList<>(partials.size());
+                for (List<String> partial : partials) {
+                        List<String> combination = new ArrayList<>(included);
+                        combination.addAll(partial);
+                        combinations.add(List.copyOf(combination));
+                }
+                return combinations;
+        }
+}
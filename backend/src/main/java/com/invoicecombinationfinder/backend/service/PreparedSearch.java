@@ -0,0 +1,26 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Validated search input: invoices sorted by amount then id, with the filters resolved to concrete bounds.
+ */
+record PreparedSearch(
+        BigDecimal target,
+        List<InvoiceInput> invoices,
+        int minInvoices,
+        Integer maxInvoices,
+        Set<String> requiredInvoiceIds
+) {
+        Map<String, InvoiceInput> invoiceById() {
+                Map<String, InvoiceInput> invoiceById = new LinkedHashMap<>();
+                invoices.forEach(invoice -> invoiceById.put(invoice.id(), invoice));
+                return invoiceById;
+        }
+}
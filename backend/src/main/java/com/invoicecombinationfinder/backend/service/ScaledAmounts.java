@@ -0,0 +1,38 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Target and invoice amounts rescaled to a common number of decimals and held as {@code long} values, so the
+ * search engines can add and compare amounts without {@link BigDecimal} arithmetic.
+ */
+record ScaledAmounts(long target, long[] amounts) {
+
+        /**
+         * Returns {@code null} if an amount, or the sum of all amounts, does not fit a {@code long} at the common scale.
+         */
+        static ScaledAmounts of(BigDecimal target, List<InvoiceInput> invoices) {
+                int scale = Math.max(0, target.scale());
+                for (InvoiceInput invoice : invoices) {
+                        scale = Math.max(scale, invoice.amount().scale());
+                }
+                try {
+                        long[] amounts = new long[invoices.size()];
+                        long total = 0;
+                        for (int i = 0; i < amounts.length; i++) {
+                                amounts[i] = toScaledLong(invoices.get(i).amount(), scale);
+                                total = Math.addExact(total, amounts[i]);
+                        }
+                        return new ScaledAmounts(toScaledLong(target, scale), amounts);
+                } catch (ArithmeticException exception) {
+                        return null;
+                }
+        }
+
+        private static long toScaledLong(BigDecimal value, int scale) {
+                return value.setScale(scale).unscaledValue().longValueExact();
+        }
+}
@@ -0,0 +1,129 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.exception.SearchBudgetExceededException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether a search may run, based on a pre-flight estimate of its size. Searches within
+ * {@code combinations.admission.max-estimated-nodes} run unrestricted; larger ones are handled according to
+ * {@code combinations.admission.mode}: rejected outright, run with a node budget and a truncated result, or queued
+ * so that only a few expensive searches run at the same time. A budget of zero or less, the default, disables
+ * admission control: the frontend does not show truncated results as partial, so limiting has to be opted into.
+ */
+@Component
+public class SearchAdmissionPolicy {
+
+        private final long maxEstimatedNodes;
+        private final AdmissionDecision overBudgetDecision;
+        private final long limitedMaxNodes;
+        private final Semaphore expensiveSearches;
+        private final Duration queueTimeout;
+        private final int samples;
+
+        public SearchAdmissionPolicy(@Value("${combinations.admission.max-estimated-nodes:0}") long maxEstimatedNodes,
+                                     @Value("${combinations.admission.mode:limit}") String mode,
+                                     @Value("${combinations.admission.limited-max-nodes:50000000}") long limitedMaxNodes,
+                                     @Value("${combinations.admission.queue.concurrency:1}") int queueConcurrency,
+                                     @Value("${combinations.admission.queue.timeout:30s}") Duration queueTimeout,
+                                     @Value("${combinations.admission.samples:64}") int samples) {
+                AdmissionDecision decision = AdmissionDecision.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+                if (decision == AdmissionDecision.ACCEPT) {
+                        throw new IllegalArgumentException("Admission mode must be one of reject, limit or queue.");
+                }
+                if (limitedMaxNodes <= 0 || queueConcurrency <= 0 || samples <= 0) {
+                        throw new IllegalArgumentException("Admission limits must be greater than zero.");
+                }
+                this.maxEstimatedNodes = maxEstimatedNodes;
+                this.overBudgetDecision = decision;
+                this.limitedMaxNodes = limitedMaxNodes;
+                this.expensiveSearches = new Semaphore(queueConcurrency, true);
+                this.queueTimeout = queueTimeout;
+                this.samples = samples;
+        }
+
+        public static SearchAdmissionPolicy unlimited() {
+                return new SearchAdmissionPolicy(0, "limit", Long.MAX_VALUE, 1, Duration.ZERO, 1);
+        }
+
+        SearchAssessment assess(PreparedSearch search) {
+                SearchEstimate estimate = SearchCostEstimator.estimate(search, samples, ThreadLocalRandom.current());
+                boolean withinBudget = maxEstimatedNodes <= 0 || estimate.estimatedNodes() <= maxEstimatedNodes;
+                return new SearchAssessment(estimate, withinBudget ? AdmissionDecision.ACCEPT : overBudgetDecision);
+        }
+
+        Admission admit(PreparedSearch search) {
+                if (maxEstimatedNodes <= 0) {
+                        return new Admission(null, Long.MAX_VALUE, null);
+                }
+                return admit(assess(search));
+        }
+
+        /**
+         * Admits a search under an earlier assessment, so that a search run in several steps (such as the pages of
+         * a paged search) is treated the same way each time. A {@code null} assessment admits it unrestricted.
+         */
+        Admission admit(SearchAssessment assessment) {
+                if (assessment == null) {
+                        return new Admission(null, Long.MAX_VALUE, null);
+                }
+                return switch (assessment.decision()) {
+                        case ACCEPT -> new Admission(assessment, Long.MAX_VALUE, null);
+                        case LIMIT -> new Admission(assessment, limitedMaxNodes, null);
+                        case REJECT -> throw new SearchBudgetExceededException(
+                                "The search is estimated to be too large to run. Narrow it down with filters or fewer invoices.",
+                                assessment.estimate());
+                        case QUEUE -> {
+                                try {
+                                        if (!expensiveSearches.tryAcquire(queueTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                                                throw new SearchBudgetExceededException(
+                                                        "Too many large searches are running. Try again later.",
+                                                        assessment.estimate(),
+                                                        queueTimeout);
+                                        }
+                                } catch (InterruptedException exception) {
+                                        Thread.currentThread().interrupt();
+                                        throw new IllegalStateException("Interrupted while waiting to run the search.", exception);
+                                }
+                                yield new Admission(assessment, Long.MAX_VALUE, expensiveSearches);
+                        }
+                };
+        }
+
+        static final class Admission implements AutoCloseable {
+
+                private final SearchAssessment assessment;
+                private final long nodeBudget;
+                private final Semaphore permit;
+
+                private Admission(SearchAssessment assessment, long nodeBudget, Semaphore permit) {
+                        this.assessment = assessment;
+                        this.nodeBudget = nodeBudget;
+                        this.permit = permit;
+                }
+
+                /**
+                 * The assessment the search was admitted under, or {@code null} if admission control is disabled.
+                 */
+                SearchAssessment assessment() {
+                        return assessment;
+                }
+
+                long nodeBudget() {
+                        return nodeBudget;
+                }
+
+                @Override
+                public void close() {
+                        if (permit != null) {
+                                permit.release();
+                        }
+                }
+        }
+}
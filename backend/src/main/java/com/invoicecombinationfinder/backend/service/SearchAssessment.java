@@ -0,0 +1,7 @@
+package com.invoicecombinationfinder.backend.service;
+
+public record SearchAssessment(
+        SearchEstimate estimate,
+        AdmissionDecision decision
+) {
+}
@@ -0,0 +1,220 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import com.invoicecombinationfinder.backend.exception.SearchBudgetExceededException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of searches: concurrent requests for the same search share one computation and all
+ * receive its result. The computation runs on its own thread and each caller gets its own future, so any caller can
+ * stop waiting (by cancelling that future) without affecting the others; only when the last caller has left is the
+ * computation cancelled. Nothing is cached once a computation completes. Computations run on a fixed number of
+ * threads with a bounded queue; once both are full, new searches are turned away.
+ */
+@Component
+public class SearchCoalescer {
+
+        private static final int DEFAULT_PARALLELISM = 4;
+        private static final int DEFAULT_QUEUE_CAPACITY = 64;
+        private static final Duration SATURATED_RETRY_AFTER = Duration.ofSeconds(1);
+
+        private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+        private final ExecutorService executor;
+
+        public SearchCoalescer() {
+                this(DEFAULT_PARALLELISM, DEFAULT_QUEUE_CAPACITY);
+        }
+
+        @Autowired
+        public SearchCoalescer(@Value("${combinations.search.parallelism:4}") int parallelism,
+                               @Value("${combinations.search.queue-capacity:64}") int queueCapacity) {
+                if (parallelism <= 0) {
+                        throw new IllegalArgumentException("Search parallelism must be greater than zero.");
+                }
+                if (queueCapacity < 0) {
+                        throw new IllegalArgumentException("Search queue capacity must not be negative.");
+                }
+                BlockingQueue<Runnable> queue = queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity);
+                this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+                        Thread thread = new Thread(runnable, "combination-search");
+                        thread.setDaemon(true);
+                        return thread;
+                });
+        }
+
+        public CombinationResult execute(String key, Supplier<CombinationResult> computation) {
+                CompletableFuture<CombinationResult> waiter = submit(key, computation);
+                try {
+                        return waiter.get();
+                } catch (InterruptedException exception) {
+                        waiter.cancel(true);
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Search was cancelled.", exception);
+                } catch (CancellationException exception) {
+                        throw new IllegalStateException("Search was cancelled.", exception);
+                } catch (ExecutionException exception) {
+                        if (exception.getCause() instanceof RuntimeException cause) {
+                                throw cause;
+                        }
+                        throw new IllegalStateException("Search failed.", exception.getCause());
+                }
+        }
+
+        /**
+         * Attaches to the computation for the key, starting it if none is running, and returns a future for this
+         * caller only. Cancelling the future detaches the caller; it fails with the computation's own exception, or
+         * with a {@link SearchBudgetExceededException} if the computation could not be started.
+         */
+        public CompletableFuture<CombinationResult> submit(String key, Supplier<CombinationResult> computation) {
+                Flight[] started = new Flight[1];
+                Flight flight = inFlight.compute(key, (ignored, existing) -> {
+                        if (existing != null) {
+                                existing.waiters++;
+                                return existing;
+                        }
+                        started[0] = new Flight(key, computation);
+                        return started[0];
+                });
+                if (flight == started[0]) {
+                        try {
+                                executor.execute(flight);
+                        } catch (RejectedExecutionException exception) {
+                                flight.reject(new SearchBudgetExceededException("Too many searches are running. Try again later.",
+                                        null,
+                                        SATURATED_RETRY_AFTER));
+                        }
+                }
+
+                CompletableFuture<CombinationResult> waiter = new CompletableFuture<>();
+                waiter.whenComplete((result, failure) -> {
+                        if (waiter.isCancelled()) {
+                                leave(flight);
+                        }
+                });
+                flight.outcome.whenComplete((result, failure) -> {
+                        if (failure != null) {
+                                waiter.completeExceptionally(failure);
+                        } else {
+                                waiter.complete(result);
+                        }
+                });
+                return waiter;
+        }
+
+        int inFlightCount() {
+                return inFlight.size();
+        }
+
+        @PreDestroy
+        void shutdown() {
+                executor.shutdownNow();
+        }
+
+        /**
+         * Canonical key of a prepared search. Invoices are already sorted and trimmed, so requests listing the same
+         * invoices in a different order share a key; amounts keep their scale because it shows up in the response.
+         */
+        static String key(PreparedSearch search) {
+                MessageDigest digest;
+                try {
+                        digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException exception) {
+                        throw new IllegalStateException(exception);
+                }
+                update(digest, search.target().stripTrailingZeros());
+                for (InvoiceInput invoice : search.invoices()) {
+                        update(digest, invoice.id());
+                        update(digest, invoice.amount());
+                }
+                update(digest, String.valueOf(search.minInvoices()));
+                update(digest, String.valueOf(search.maxInvoices()));
+                search.requiredInvoiceIds().stream().sorted().forEach(id -> update(digest, id));
+                return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private static void update(MessageDigest digest, BigDecimal value) {
+                update(digest, value.toPlainString());
+        }
+
+        private static void update(MessageDigest digest, String value) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                digest.update((byte) (bytes.length >>> 24));
+                digest.update((byte) (bytes.length >>> 16));
+                digest.update((byte) (bytes.length >>> 8));
+                digest.update((byte) bytes.length);
+                digest.update(bytes);
+        }
+
+        private void leave(Flight flight) {
+                boolean[] abandoned = new boolean[1];
+                inFlight.computeIfPresent(flight.key, (ignored, current) -> {
+                        if (current != flight || --flight.waiters > 0) {
+                                return current;
+                        }
+                        abandoned[0] = true;
+                        return null;
+                });
+                // Cancel outside the map update: cancelling runs done(), which touches the map again.
+                if (abandoned[0]) {
+                        flight.cancel(true);
+                }
+        }
+
+        private final class Flight extends FutureTask<CombinationResult> {
+
+                private final String key;
+                private final CompletableFuture<CombinationResult> outcome = new CompletableFuture<>();
+                // Guarded by the in-flight map entry for the key.
+                private int waiters = 1;
+
+                private Flight(String key, Supplier<CombinationResult> computation) {
+                        super(computation::get);
+                        this.key = key;
+                }
+
+                // Fails every waiter, including any that attached before the executor turned the flight away.
+                private void reject(RuntimeException exception) {
+                        setException(exception);
+                }
+
+                @Override
+                protected void done() {
+                        inFlight.remove(key, this);
+                        try {
+                                outcome.complete(get());
+                        } catch (CancellationException exception) {
+                                outcome.completeExceptionally(exception);
+                        } catch (ExecutionException exception) {
+                                outcome.completeExceptionally(exception.getCause());
+                        } catch (InterruptedException exception) {
+                                // Unreachable: the task has completed, so get() does not block.
+                                Thread.currentThread().interrupt();
+                                outcome.completeExceptionally(exception);
+                        }
+                }
+        }
+}
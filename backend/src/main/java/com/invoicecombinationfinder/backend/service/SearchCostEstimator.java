@@ -0,0 +1,94 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Predicts the size of a search without running it, using Knuth's random-descent estimator: each sample walks one
+ * random root-to-leaf path of the search tree, and the product of the branching factors seen along the way is an
+ * unbiased estimate of the number of nodes at that depth. Averaging a few dozen descents is enough to tell a
+ * search that finishes in milliseconds from one that would run for hours.
+ */
+final class SearchCostEstimator {
+
+        private SearchCostEstimator() {
+        }
+
+        static SearchEstimate estimate(PreparedSearch search, int samples, Random random) {
+                List<InvoiceInput> invoices = search.invoices();
+                BigDecimal[] amounts = invoices.stream().map(InvoiceInput::amount).toArray(BigDecimal[]::new);
+                int maxDepth = search.maxInvoices() == null
+                        ? amounts.length
+                        : Math.min(search.maxInvoices(), amounts.length);
+                Set<String> required = search.requiredInvoiceIds();
+
+                double totalNodes = 0;
+                double totalCombinations = 0;
+                for (int sample = 0; sample < samples; sample++) {
+                        int depth = 0;
+                        int next = 0;
+                        int requiredOnPath = 0;
+                        Set<String> path = new HashSet<>();
+                        BigDecimal remaining = search.target();
+                        double weight = 1;
+                        while (depth < maxDepth) {
+                                int branches = upperBound(amounts, next, remaining) - next;
+                                if (branches == 0) {
+                                        break;
+                                }
+                                weight *= branches;
+                                totalNodes += weight;
+
+                                int pick = next + random.nextInt(branches);
+                                String id = invoices.get(pick).id();
+                                if (required.contains(id) && path.add(id)) {
+                                        requiredOnPath++;
+                                }
+                                remaining = remaining.subtract(amounts[pick]);
+                                depth++;
+                                next = pick + 1;
+                                if (remaining.signum() == 0) {
+                                        if (depth >= search.minInvoices() && requiredOnPath == required.size()) {
+                                                totalCombinations += weight;
+                                        }
+                                        break;
+                                }
+                        }
+                }
+
+                return new SearchEstimate(invoices.size(),
+                        maxCombinationSize(amounts, search.target(), maxDepth),
+                        samples == 0 ? 0 : totalNodes / samples,
+                        samples == 0 ? 0 : totalCombinations / samples);
+        }
+
+        // First index in [from, amounts.length) whose amount exceeds the limit.
+        private static int upperBound(BigDecimal[] amounts, int from, BigDecimal limit) {
+                int low = from;
+                int high = amounts.length;
+                while (low < high) {
+                        int middle = (low + high) >>> 1;
+                        if (amounts[middle].compareTo(limit) <= 0) {
+                                low = middle + 1;
+                        } else {
+                                high = middle;
+                        }
+                }
+                return low;
+        }
+
+        private static int maxCombinationSize(BigDecimal[] amounts, BigDecimal target, int maxDepth) {
+                BigDecimal sum = BigDecimal.ZERO;
+                int size = 0;
+                while (size < maxDepth && sum.add(amounts[size]).compareTo(target) <= 0) {
+                        sum = sum.add(amounts[size]);
+                        size++;
+                }
+                return size;
+        }
+}
@@ -0,0 +1,9 @@
+package com.invoicecombinationfinder.backend.service;
+
+public record SearchEstimate(
+        int invoiceCount,
+        int maxCombinationSize,
+        double estimatedNodes,
+        double estimatedCombinations
+) {
+}
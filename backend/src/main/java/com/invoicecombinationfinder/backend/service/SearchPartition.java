@@ -0,0 +1,25 @@
+package com.invoicecombinationfinder.backend.service;
+
+/**
+ * A subtree of the search: the include/exclude decisions for the first {@code prefixLength} invoices of the sorted
+ * invoice list are fixed, with bit {@code i} of {@code prefixMask} set when invoice {@code i} is included.
+ */
+public record SearchPartition(
+        int prefixLength,
+        long prefixMask
+) {
+        static final int MAX_PREFIX_LENGTH = 20;
+
+        public SearchPartition {
+                if (prefixLength < 0 || prefixLength > MAX_PREFIX_LENGTH) {
+                        throw new IllegalArgumentException("Partition prefix length must be between 0 and " + MAX_PREFIX_LENGTH + ".");
+                }
+                if (prefixMask < 0 || prefixMask >= 1L << prefixLength) {
+                        throw new IllegalArgumentException("Partition prefix mask does not fit the prefix length.");
+                }
+        }
+
+        public boolean includes(int index) {
+                return (prefixMask & 1L << index) != 0;
+        }
+}
@@ -0,0 +1,11 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.util.List;
+
+public record SheetInvoices(
+        String sheetName,
+        List<InvoiceInput> invoices
+) {
+}
@@ -0,0 +1,13 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record StreamedCombinationRequest(
+        BigDecimal target,
+        List<InvoiceInput> invoices,
+        CombinationFilters filters
+) {
+}
@@ -1,32 +1,60 @@
 package com.invoicecombinationfinder.backend.controller;
 
 import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import com.invoicecombinationfinder.backend.service.AdmissionDecision;
+import com.invoicecombinationfinder.backend.service.CombinationFilters;
+import com.invoicecombinationfinder.backend.service.CombinationPage;
+import com.invoicecombinationfinder.backend.service.CombinationPagingService;
 import com.invoicecombinationfinder.backend.service.CombinationResult;
 import com.invoicecombinationfinder.backend.service.CombinationService;
-import com.invoicecombinationfinder.backend.service.ExcelInvoiceParser;
+import com.invoicecombinationfinder.backend.service.DelimitedInvoiceParser;
+import com.invoicecombinationfinder.backend.service.ExcelUploadService;
+import com.invoicecombinationfinder.backend.service.FileParseReport;
+import com.invoicecombinationfinder.backend.service.FirstMatchResult;
+import com.invoicecombinationfinder.backend.service.JsonInvoiceStreamParser;
+import com.invoicecombinationfinder.backend.service.ParsedUpload;
+import com.invoicecombinationfinder.backend.service.SearchAssessment;
+import com.invoicecombinationfinder.backend.service.SearchEstimate;
+import com.invoicecombinationfinder.backend.service.StreamedCombinationRequest;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = CombinationController.class)
+@Import({JsonInvoiceStreamParser.class, DelimitedInvoiceParser.class})
 class CombinationControllerTest {
 
         @Autowired
@@ -36,7 +64,10 @@ class CombinationControllerTest {
         private CombinationService combinationService;
 
         @MockBean
-        private ExcelInvoiceParser excelInvoiceParser;
+        private ExcelUploadService excelUploadService;
+
+        @MockBean
+        private CombinationPagingService combinationPagingService;
 
         @Test
         void returnsCombinationsFromService() throws Exception {
@@ -45,8 +76,8 @@ class CombinationControllerTest {
                 invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5")));
                 invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
 
-                Mockito.when(combinationService.findCombinations(eq(new BigDecimal("15")), any(), any()))
-                        .thenReturn(new CombinationResult(combinations, invoiceMap));
+                Mockito.when(combinationService.findCombinationsAsync(eq(new BigDecimal("15")), any(), any()))
+                        .thenReturn(CompletableFuture.completedFuture(new CombinationResult(combinations, invoiceMap)));
 
                 String requestBody = """
                         {
@@ -62,7 +93,7 @@ class CombinationControllerTest {
                         }
                         """;
 
-                mockMvc.perform(post("/api/combinations")
+                performSearch(post("/api/combinations")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(requestBody))
                         .andExpect(status().isOk())
@@ -72,7 +103,7 @@ class CombinationControllerTest {
                         .andExpect(jsonPath("$.invoiceAmounts.INV-1").value(5))
                         .andExpect(jsonPath("$.invoiceAmounts.INV-2").value(10));
 
-                Mockito.verify(combinationService).findCombinations(eq(new BigDecimal("15")), any(), org.mockito.ArgumentMatchers.argThat(filters ->
+                Mockito.verify(combinationService).findCombinationsAsync(eq(new BigDecimal("15")), any(), org.mockito.ArgumentMatchers.argThat(filters ->
                         filters != null
                                 && filters.minInvoices() != null && filters.minInvoices() == 1
                                 && filters.maxInvoices() != null && filters.maxInvoices() == 2
@@ -112,11 +143,12 @@ class CombinationControllerTest {
                 Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
                 parsedInvoices.forEach(invoice -> invoiceMap.put(invoice.id(), invoice));
 
-                Mockito.when(excelInvoiceParser.parse(any())).thenReturn(parsedInvoices);
-                Mockito.when(combinationService.findCombinations(eq(new BigDecimal("15")), any(), any()))
-                        .thenReturn(new CombinationResult(combinations, invoiceMap));
+                Mockito.when(excelUploadService.parse(any(), any())).thenReturn(new ParsedUpload(parsedInvoices,
+                        List.of(new FileParseReport("invoices.xlsx", List.of("Invoices"), 2, 7))));
+                Mockito.when(combinationService.findCombinationsAsync(eq(new BigDecimal("15")), any(), any()))
+                        .thenReturn(CompletableFuture.completedFuture(new CombinationResult(combinations, invoiceMap)));
 
-                mockMvc.perform(MockMvcRequestBuilders.multipart("/api/combinations/upload")
+                performSearch(MockMvcRequestBuilders.multipart("/api/combinations/upload")
                                 .file(file)
                                 .param("target", "15")
                                 .param("minInvoices", "1")
@@ -125,9 +157,12 @@ class CombinationControllerTest {
                         .andExpect(status().isOk())
                         .andExpect(jsonPath("$.combinationCount").value(1))
                         .andExpect(jsonPath("$.combinations[0][0]").value("INV-1"))
-                        .andExpect(jsonPath("$.invoiceAmounts.INV-2").value(10));
+                        .andExpect(jsonPath("$.invoiceAmounts.INV-2").value(10))
+                        .andExpect(jsonPath("$.files[0].filename").value("invoices.xlsx"))
+                        .andExpect(jsonPath("$.files[0].sheets[0]").value("Invoices"))
+                        .andExpect(jsonPath("$.files[0].parseMillis").value(7));
 
-                Mockito.verify(combinationService).findCombinations(eq(new BigDecimal("15")), any(), org.mockito.ArgumentMatchers.argThat(filters ->
+                Mockito.verify(combinationService).findCombinationsAsync(eq(new BigDecimal("15")), any(), org.mockito.ArgumentMatchers.argThat(filters ->
                         filters != null
                                 && filters.minInvoices() != null && filters.minInvoices() == 1
                                 && filters.maxInvoices() != null && filters.maxInvoices() == 3
@@ -141,8 +176,8 @@ class CombinationControllerTest {
                 invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5")));
                 invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
 
-                Mockito.when(combinationService.findCombinations(eq(new BigDecimal("15")), any(), any()))
-                        .thenReturn(new CombinationResult(combinations, invoiceMap));
+                Mockito.when(combinationService.findCombinationsAsync(eq(new BigDecimal("15")), any(), any()))
+                        .thenReturn(CompletableFuture.completedFuture(new CombinationResult(combinations, invoiceMap)));
 
                 String requestBody = """
                         {
@@ -155,11 +190,325 @@ class CombinationControllerTest {
                         }
                         """;
 
-                mockMvc.perform(post("/api/combinations/export")
+                performSearch(post("/api/combinations/export")
                                 .contentType(MediaType.APPLICATION_JSON)
                                 .content(requestBody))
                         .andExpect(status().isOk())
                         .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice-mix-combinations.csv"))
                         .andExpect(org.springframework.test.web.servlet.result.MockMvcResultMatchers.content().string(org.hamcrest.Matchers.containsString("INV-1 (5)")));
         }
+
+        @Test
+        void returnsFirstPageWithCursor() throws Exception {
+                Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
+                invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5")));
+                invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
+
+                Mockito.when(combinationPagingService.firstPage(eq(new BigDecimal("15")), any(), any(), eq(1)))
+                        .thenReturn(new CombinationPage(List.of(List.of("INV-1", "INV-2")), invoiceMap, "cursor-1", false));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [
+                            {"id": "INV-1", "amount": 5},
+                            {"id": "INV-2", "amount": 10},
+                            {"id": "INV-3", "amount": 15}
+                          ]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/combinations/pages")
+                                .param("pageSize", "1")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.combinationCount").value(1))
+                        .andExpect(jsonPath("$.combinations[0][1]").value("INV-2"))
+                        .andExpect(jsonPath("$.invoiceAmounts.INV-2").value(10))
+                        .andExpect(jsonPath("$.nextCursor").value("cursor-1"));
+        }
+
+        @Test
+        void continuesFromCursor() throws Exception {
+                Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
+                invoiceMap.put("INV-3", new InvoiceInput("INV-3", new BigDecimal("15")));
+
+                Mockito.when(combinationPagingService.nextPage("cursor-1", 1))
+                        .thenReturn(new CombinationPage(List.of(List.of("INV-3")), invoiceMap, null, false));
+
+                mockMvc.perform(get("/api/combinations/pages/cursor-1").param("pageSize", "1"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.combinations[0][0]").value("INV-3"))
+                        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        }
+
+        @Test
+        void rejectsUnknownCursor() throws Exception {
+                Mockito.when(combinationPagingService.nextPage("missing", 100))
+                        .thenThrow(new IllegalArgumentException("Unknown or expired cursor."));
+
+                mockMvc.perform(get("/api/combinations/pages/missing"))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Unknown or expired cursor."));
+        }
+
+        @Test
+        void returnsSearchEstimateForDryRun() throws Exception {
+                Mockito.when(combinationService.assess(eq(new BigDecimal("15")), any(), any()))
+                        .thenReturn(new SearchAssessment(new SearchEstimate(3, 2, 4.5, 1.0), AdmissionDecision.ACCEPT));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [
+                            {"id": "INV-1", "amount": 5},
+                            {"id": "INV-2", "amount": 10},
+                            {"id": "INV-3", "amount": 12}
+                          ]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/combinations/estimate")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.invoiceCount").value(3))
+                        .andExpect(jsonPath("$.estimatedNodes").value(4.5))
+                        .andExpect(jsonPath("$.decision").value("accept"));
+
+                Mockito.verify(combinationService, Mockito.never()).findCombinationsAsync(any(), any(), any());
+        }
+
+        @Test
+        void reportsRejectedSearches() throws Exception {
+                Mockito.when(combinationService.findCombinationsAsync(eq(new BigDecimal("15")), any(), any()))
+                        .thenReturn(CompletableFuture.failedFuture(new com.invoicecombinationfinder.backend.exception.SearchBudgetExceededException(
+                                "The search is estimated to be too large to run.", new SearchEstimate(3, 2, 1e12, 1e6))));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [{"id": "INV-1", "amount": 5}]
+                        }
+                        """;
+
+                performSearch(post("/api/combinations")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isUnprocessableEntity())
+                        .andExpect(header().doesNotExist(HttpHeaders.RETRY_AFTER))
+                        .andExpect(jsonPath("$.message").value("The search is estimated to be too large to run."))
+                        .andExpect(jsonPath("$.estimatedNodes").value(1e12));
+        }
+
+        @Test
+        void asksClientsToRetrySearchesThatTimedOutInTheQueue() throws Exception {
+                Mockito.when(combinationService.findCombinationsAsync(eq(new BigDecimal("15")), any(), any()))
+                        .thenReturn(CompletableFuture.failedFuture(new com.invoicecombinationfinder.backend.exception.SearchBudgetExceededException(
+                                "Too many large searches are running. Try again later.", new SearchEstimate(3, 2, 1e12, 1e6),
+                                java.time.Duration.ofMillis(2500))));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [{"id": "INV-1", "amount": 5}]
+                        }
+                        """;
+
+                performSearch(post("/api/combinations")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isServiceUnavailable())
+                        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+        }
+
+        @Test
+        void returnsFirstMatchWithinBudget() throws Exception {
+                Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
+                invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5")));
+                invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
+                Mockito.when(combinationService.findFirstCombination(eq(new BigDecimal("15")), any(), any(), eq(Duration.ofMillis(250))))
+                        .thenReturn(new FirstMatchResult(List.of("INV-1", "INV-2"), invoiceMap, true, false, 3));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [
+                            {"id": "INV-1", "amount": 5},
+                            {"id": "INV-2", "amount": 10},
+                            {"id": "INV-3", "amount": 12}
+                          ]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/combinations/first")
+                                .param("timeBudgetMs", "250")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.combination[1]").value("INV-2"))
+                        .andExpect(jsonPath("$.invoiceAmounts.INV-1").value(5))
+                        .andExpect(jsonPath("$.foundWithinBudget").value(true))
+                        .andExpect(jsonPath("$.noMatchExists").value(false));
+        }
+
+        @Test
+        void rejectsFirstMatchBudgetOutOfRange() throws Exception {
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [{"id": "INV-1", "amount": 5}]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/combinations/first")
+                                .param("timeBudgetMs", "0")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Time budget must be between 1 and 60000 milliseconds."));
+        }
+
+        @Test
+        void streamsInvoicesIntoTheService() throws Exception {
+                Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
+                invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5")));
+                invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
+                Mockito.when(combinationService.findCombinationsAsync(any(StreamedCombinationRequest.class)))
+                        .thenReturn(CompletableFuture.completedFuture(new CombinationResult(List.of(List.of("INV-1", "INV-2")), invoiceMap)));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [
+                            {"id": " INV-1 ", "amount": 5},
+                            {"id": "INV-2", "amount": "10"}
+                          ],
+                          "requiredInvoiceIds": ["INV-1"]
+                        }
+                        """;
+
+                performSearch(post("/api/combinations/stream")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.combinationCount").value(1))
+                        .andExpect(jsonPath("$.invoiceAmounts.INV-2").value(10));
+
+                Mockito.verify(combinationService).findCombinationsAsync(new StreamedCombinationRequest(new BigDecimal("15"),
+                        List.of(new InvoiceInput("INV-1", new BigDecimal("5")), new InvoiceInput("INV-2", new BigDecimal("10"))),
+                        new CombinationFilters(null, null, Set.of("INV-1"))));
+        }
+
+        @Test
+        void reportsTheIndexOfTheFirstInvalidStreamedInvoice() throws Exception {
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [
+                            {"id": "INV-1", "amount": 5},
+                            {"id": "INV-2", "amount": -1},
+                            {"id": "", "amount": 3}
+                          ]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/combinations/stream")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Invoice at index 1: amount must be greater than zero."));
+
+                Mockito.verify(combinationService, Mockito.never()).findCombinationsAsync(any(StreamedCombinationRequest.class));
+        }
+
+        @Test
+        void returnsCombinationsFromCsvUpload() throws Exception {
+                Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
+                invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5.5")));
+                invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
+                List<InvoiceInput> parsed = List.of(new InvoiceInput("INV-1", new BigDecimal("5.5")), new InvoiceInput("INV-2", new BigDecimal("10")));
+                Mockito.when(combinationService.findCombinationsAsync(eq(new BigDecimal("15.5")), eq(parsed), any()))
+                        .thenReturn(CompletableFuture.completedFuture(new CombinationResult(List.of(List.of("INV-1", "INV-2")), invoiceMap)));
+
+                MockMultipartFile file = new MockMultipartFile("file", "invoices.csv", "text/csv",
+                        "Invoice;Amount\nINV-1;5,5\nINV-2;10\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+
+                performSearch(MockMvcRequestBuilders.multipart("/api/combinations/upload/csv")
+                                .file(file)
+                                .param("target", "15.5")
+                                .param("delimiter", ";")
+                                .param("decimalSeparator", ","))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.combinationCount").value(1))
+                        .andExpect(jsonPath("$.invoiceAmounts.INV-1").value(5.5));
+        }
+
+        @Test
+        void rejectsMultiCharacterDelimiters() throws Exception {
+                MockMultipartFile file = new MockMultipartFile("file", "invoices.csv", "text/csv",
+                        "INV-1,5\n".getBytes(java.nio.charset.StandardCharsets.UTF_8));
+
+                mockMvc.perform(MockMvcRequestBuilders.multipart("/api/combinations/upload/csv")
+                                .file(file)
+                                .param("target", "5")
+                                .param("delimiter", ";;"))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Delimiter must be a single character."));
+        }
+
+        @Test
+        void passesAllUploadedFilesAndSheetsToTheUploadService() throws Exception {
+                MockMultipartFile north = new MockMultipartFile("file", "north.xlsx", "application/octet-stream", "a".getBytes());
+                MockMultipartFile south = new MockMultipartFile("file", "south.xlsx", "application/octet-stream", "b".getBytes());
+                Mockito.when(excelUploadService.parse(any(), any()))
+                        .thenThrow(new IllegalArgumentException("Invoice INV-1 appears in both north.xlsx (Invoices) and south.xlsx (Invoices)."));
+
+                mockMvc.perform(MockMvcRequestBuilders.multipart("/api/combinations/upload")
+                                .file(north)
+                                .file(south)
+                                .param("target", "15")
+                                .param("sheets", "Invoices", "Credits"))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Invoice INV-1 appears in both north.xlsx (Invoices) and south.xlsx (Invoices)."));
+
+                Mockito.verify(excelUploadService).parse(org.mockito.ArgumentMatchers.argThat(files -> files.size() == 2
+                                && "north.xlsx".equals(files.get(0).getOriginalFilename())
+                                && "south.xlsx".equals(files.get(1).getOriginalFilename())),
+                        eq(List.of("Invoices", "Credits")));
+        }
+
+        @Test
+        void detachesFromTheSearchWhenTheRequestTimesOut() throws Exception {
+                CompletableFuture<CombinationResult> search = new CompletableFuture<>();
+                Mockito.when(combinationService.findCombinationsAsync(eq(new BigDecimal("15")), any(), any()))
+                        .thenReturn(search);
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [{"id": "INV-1", "amount": 15}]
+                        }
+                        """;
+
+                MvcResult started = mockMvc.perform(post("/api/combinations")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+                MockAsyncContext asyncContext = (MockAsyncContext) started.getRequest().getAsyncContext();
+                for (AsyncListener listener : asyncContext.getListeners()) {
+                        listener.onTimeout(new AsyncEvent(asyncContext));
+                }
+
+                assertTrue(search.isCancelled());
+        }
+
+        private ResultActions performSearch(RequestBuilder requestBuilder) throws Exception {
+                MvcResult started = mockMvc.perform(requestBuilder)
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+                return mockMvc.perform(asyncDispatch(started));
+        }
 }
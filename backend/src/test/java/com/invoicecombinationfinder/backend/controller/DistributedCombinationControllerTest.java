@@ -0,0 +1,190 @@
+package com.invoicecombinationfinder.backend.controller;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import com.invoicecombinationfinder.backend.service.CombinationService;
+import com.invoicecombinationfinder.backend.service.DistributedCombinationResult;
+import com.invoicecombinationfinder.backend.service.DistributedCombinationService;
+import com.invoicecombinationfinder.backend.service.DistributedSearchProgress;
+import com.invoicecombinationfinder.backend.service.PartitionResult;
+import com.invoicecombinationfinder.backend.service.SearchPartition;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = DistributedCombinationController.class)
+class DistributedCombinationControllerTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @MockBean
+        private CombinationService combinationService;
+
+        @MockBean
+        private DistributedCombinationService distributedCombinationService;
+
+        @Test
+        void searchesSinglePartitionForCoordinator() throws Exception {
+                Mockito.when(combinationService.findPartitionCombinations(eq(new BigDecimal("15")), any(), any(),
+                                eq(new SearchPartition(2, 1))))
+                        .thenReturn(new PartitionResult(List.of(List.of("INV-1", "INV-2")), 7));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "prefixLength": 2,
+                          "prefixMask": 1,
+                          "invoices": [
+                            {"id": "INV-1", "amount": 5},
+                            {"id": "INV-2", "amount": 10}
+                          ]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/combinations/partitions")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.combinations[0][1]").value("INV-2"))
+                        .andExpect(jsonPath("$.nodesVisited").value(7));
+        }
+
+        @Test
+        void rejectsInvalidPartition() throws Exception {
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "prefixLength": 2,
+                          "prefixMask": 4,
+                          "invoices": [{"id": "INV-1", "amount": 5}]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/combinations/partitions")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Partition prefix mask does not fit the prefix length."));
+        }
+
+        @Test
+        void streamsProgressFollowedByResult() throws Exception {
+                Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
+                invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5")));
+                invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
+
+                Mockito.when(distributedCombinationService.findCombinations(eq(new BigDecimal("15")), any(), any(), any()))
+                        .thenAnswer(invocation -> {
+                                Consumer<DistributedSearchProgress> listener = invocation.getArgument(3);
+                                listener.accept(new DistributedSearchProgress(1, 2, new SearchPartition(1, 1), "http://worker-1", 1, 3));
+                                listener.accept(new DistributedSearchProgress(2, 2, new SearchPartition(1, 0), "http://worker-2", 1, 5));
+                                return new DistributedCombinationResult(List.of(List.of("INV-1", "INV-2")), invoiceMap, 2, 5,
+                                        Map.of("http://worker-1", 1, "http://worker-2", 1), false);
+                        });
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [
+                            {"id": "INV-1", "amount": 5},
+                            {"id": "INV-2", "amount": 10}
+                          ]
+                        }
+                        """;
+
+                MvcResult started = mockMvc.perform(post("/api/combinations/distributed/progress")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+                String[] lines = mockMvc.perform(asyncDispatch(started))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                        .andReturn()
+                        .getResponse()
+                        .getContentAsString()
+                        .split("\n");
+
+                assertEquals(3, lines.length);
+                assertTrue(lines[0].contains("\"completedPartitions\":1"));
+                assertTrue(lines[0].contains("\"prefixMask\":1"));
+                assertTrue(lines[1].contains("\"worker\":\"http://worker-2\""));
+                assertTrue(lines[2].startsWith("{\"result\":"));
+                assertTrue(lines[2].contains("\"combinationCount\":1"));
+        }
+
+        @Test
+        void streamsErrorLineWhenSearchFails() throws Exception {
+                Mockito.when(distributedCombinationService.findCombinations(any(), any(), any(), any()))
+                        .thenThrow(new IllegalArgumentException("Invoice list cannot be empty."));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [{"id": "INV-1", "amount": 5}]
+                        }
+                        """;
+
+                MvcResult started = mockMvc.perform(post("/api/combinations/distributed/progress")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(request().asyncStarted())
+                        .andReturn();
+                mockMvc.perform(asyncDispatch(started))
+                        .andExpect(status().isOk())
+                        .andExpect(content().string("{\"error\":\"Invoice list cannot be empty.\"}\n"));
+        }
+
+        @Test
+        void returnsMergedDistributedResult() throws Exception {
+                Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
+                invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5")));
+                invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
+
+                Mockito.when(distributedCombinationService.findCombinations(eq(new BigDecimal("15")), any(), any()))
+                        .thenReturn(new DistributedCombinationResult(List.of(List.of("INV-1", "INV-2")), invoiceMap, 4, 11,
+                                Map.of("http://worker-1", 4), true));
+
+                String requestBody = """
+                        {
+                          "target": 15,
+                          "invoices": [
+                            {"id": "INV-1", "amount": 5},
+                            {"id": "INV-2", "amount": 10}
+                          ]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/combinations/distributed")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.combinationCount").value(1))
+                        .andExpect(jsonPath("$.partitionCount").value(4))
+                        .andExpect(jsonPath("$.nodesVisited").value(11))
+                        .andExpect(jsonPath("$.truncated").value(true))
+                        .andExpect(jsonPath("$.invoiceAmounts.INV-2").value(10));
+        }
+}
@@ -0,0 +1,95 @@
+package com.invoicecombinationfinder.backend.controller;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import com.invoicecombinationfinder.backend.service.CombinationResult;
+import com.invoicecombinationfinder.backend.service.InvoiceSetService;
+import com.invoicecombinationfinder.backend.service.InvoiceSetSummary;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = InvoiceSetController.class)
+class InvoiceSetControllerTest {
+
+        @Autowired
+        private MockMvc mockMvc;
+
+        @MockBean
+        private InvoiceSetService invoiceSetService;
+
+        @Test
+        void registersInvoiceSet() throws Exception {
+                Mockito.when(invoiceSetService.register(any())).thenReturn(new InvoiceSetSummary("set-1", 2));
+
+                String requestBody = """
+                        {
+                          "invoices": [
+                            {"id": "INV-1", "amount": 5},
+                            {"id": "INV-2", "amount": 10}
+                          ]
+                        }
+                        """;
+
+                mockMvc.perform(post("/api/invoice-sets")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(requestBody))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").value("set-1"))
+                        .andExpect(jsonPath("$.invoiceCount").value(2));
+        }
+
+        @Test
+        void removesInvoiceFromSet() throws Exception {
+                Mockito.when(invoiceSetService.removeInvoices("set-1", List.of("INV-2")))
+                        .thenReturn(new InvoiceSetSummary("set-1", 1));
+
+                mockMvc.perform(delete("/api/invoice-sets/set-1/invoices/INV-2"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.invoiceCount").value(1));
+        }
+
+        @Test
+        void findsCombinationsForSet() throws Exception {
+                Map<String, InvoiceInput> invoiceMap = new LinkedHashMap<>();
+                invoiceMap.put("INV-1", new InvoiceInput("INV-1", new BigDecimal("5")));
+                invoiceMap.put("INV-2", new InvoiceInput("INV-2", new BigDecimal("10")));
+
+                Mockito.when(invoiceSetService.findCombinations(eq("set-1"), eq(new BigDecimal("15")), any()))
+                        .thenReturn(new CombinationResult(List.of(List.of("INV-1", "INV-2")), invoiceMap));
+
+                mockMvc.perform(post("/api/invoice-sets/set-1/combinations")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"target\": 15, \"maxInvoices\": 2}"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.combinationCount").value(1))
+                        .andExpect(jsonPath("$.invoiceAmounts.INV-2").value(10));
+
+                Mockito.verify(invoiceSetService).findCombinations(eq("set-1"), eq(new BigDecimal("15")),
+                        org.mockito.ArgumentMatchers.argThat(filters -> filters.maxInvoices() == 2));
+        }
+
+        @Test
+        void rejectsNonPositiveTarget() throws Exception {
+                mockMvc.perform(post("/api/invoice-sets/set-1/combinations")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"target\": 0}"))
+                        .andExpect(status().isBadRequest())
+                        .andExpect(jsonPath("$.message").value("Validation failed"));
+        }
+}
@@ -0,0 +1,343 @@
+package com.invoicecombinationfinder.backend.loadtest;
+
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives a mix of requests against the application on a random port and prints throughput, latency percentiles,
+ * error rates and heap/GC figures. Excluded from the normal build; run it with {@code ./mvnw test -Pload-test}.
+ * Settings are system properties: {@code load.concurrency} (default 8), {@code load.rate} in requests per second
+ * across all workers (default 0, unlimited), {@code load.duration} (30s), {@code load.warmup} (5s),
+ * {@code load.mix} (search=70,export=15,upload-csv=10,upload-xlsx=5), {@code load.upload-rows} (10000) and
+ * {@code load.max-error-rate} (0.01). With a fixed rate, latency is measured from the time a request was due
+ * rather than the time it was sent, so a slow server is not hidden by requests queueing up in the client.
+ */
+@Tag("load-test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CombinationLoadTest {
+
+        private static final String BOUNDARY = "load-test-boundary";
+        // Distinct bodies per JSON workload, so concurrent requests are not all merged by the search coalescer.
+        private static final int JSON_VARIANTS = 32;
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void mixedWorkload() throws Exception {
+                int concurrency = Integer.getInteger("load.concurrency", 8);
+                double rate = Double.parseDouble(System.getProperty("load.rate", "0"));
+                Duration duration = DurationStyle.detectAndParse(System.getProperty("load.duration", "30s"));
+                Duration warmup = DurationStyle.detectAndParse(System.getProperty("load.warmup", "5s"));
+                String mix = System.getProperty("load.mix", "search=70,export=15,upload-csv=10,upload-xlsx=5");
+                int uploadRows = Integer.getInteger("load.upload-rows", 10_000);
+                double maxErrorRate = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+
+                List<Workload> workloads = workloads(mix, uploadRows);
+                int totalWeight = workloads.stream().mapToInt(Workload::weight).sum();
+                HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+
+                MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+                AtomicLong peakHeap = new AtomicLong();
+                ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+                long[] gcBefore = new long[2];
+
+                long start = System.nanoTime();
+                long measureFrom = start + warmup.toNanos();
+                long end = measureFrom + duration.toNanos();
+                long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+                AtomicLong tickets = new AtomicLong();
+                heapSampler.schedule(() -> {
+                        System.gc();
+                        gcBefore[0] = gcCount();
+                        gcBefore[1] = gcMillis();
+                        heapSampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max),
+                                0, 100, TimeUnit.MILLISECONDS);
+                }, warmup.toMillis(), TimeUnit.MILLISECONDS);
+
+                ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+                for (int i = 0; i < concurrency; i++) {
+                        workers.execute(() -> {
+                                while (true) {
+                                        long due = interval > 0 ? start + tickets.getAndIncrement() * interval : System.nanoTime();
+                                        if (due >= end) {
+                                                return;
+                                        }
+                                        long wait = due - System.nanoTime();
+                                        if (wait > 0) {
+                                                LockSupport.parkNanos(wait);
+                                        }
+                                        Workload workload = pick(workloads, totalWeight);
+                                        long sent = interval > 0 ? due : System.nanoTime();
+                                        boolean success = send(client, workload.request());
+                                        if (sent >= measureFrom) {
+                                                workload.samples().add(System.nanoTime() - sent, success);
+                                        }
+                                }
+                        });
+                }
+                workers.shutdown();
+                assertTrue(workers.awaitTermination(duration.plus(warmup).toSeconds() + 120, TimeUnit.SECONDS),
+                        "Load test workers did not finish.");
+                heapSampler.shutdownNow();
+                long heapAtEnd = memory.getHeapMemoryUsage().getUsed();
+
+                double seconds = duration.toNanos() / 1e9;
+                StringBuilder report = new StringBuilder();
+                report.append(String.format(Locale.ROOT, "%nLoad test: %d workers, %s, %s measured after %s warm-up%n",
+                        concurrency, rate > 0 ? rate + " requests/s" : "unthrottled", duration, warmup));
+                report.append(String.format(Locale.ROOT, "%-12s %9s %7s %7s %9s %9s %9s %9s %9s%n",
+                        "workload", "requests", "errors", "error%", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+                Samples total = new Samples();
+                for (Workload workload : workloads) {
+                        report.append(row(workload.name(), workload.samples(), seconds));
+                        total.addAll(workload.samples());
+                }
+                report.append(row("total", total, seconds));
+                report.append(String.format(Locale.ROOT, "Heap: %d MB used at end, %d MB peak, %d MB max%n",
+                        megabytes(heapAtEnd),
+                        megabytes(Math.max(peakHeap.get(), heapAtEnd)),
+                        megabytes(memory.getHeapMemoryUsage().getMax())));
+                report.append(String.format(Locale.ROOT, "GC: %d collections, %d ms in total while measuring (client and server share this JVM)%n",
+                        gcCount() - gcBefore[0], gcMillis() - gcBefore[1]));
+                System.out.println(report);
+
+                assertTrue(total.count() > 0, "No requests completed while measuring.");
+                assertTrue(total.errors() <= maxErrorRate * total.count(),
+                        "Error rate " + total.errors() + "/" + total.count() + " exceeds " + maxErrorRate + ".");
+        }
+
+        private List<Workload> workloads(String mix, int uploadRows) throws IOException {
+                String base = "http://localhost:" + port + "/api/combinations";
+                Map<String, Integer> weights = new LinkedHashMap<>();
+                for (String entry : mix.split(",")) {
+                        String[] parts = entry.trim().split("=");
+                        weights.put(parts[0].trim(), Integer.parseInt(parts[1].trim()));
+                }
+
+                List<Workload> workloads = new ArrayList<>();
+                Random random = new Random(42);
+                for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+                        if (entry.getValue() <= 0) {
+                                continue;
+                        }
+                        List<HttpRequest> requests = new ArrayList<>();
+                        switch (entry.getKey()) {
+                                case "search" -> {
+                                        for (int i = 0; i < JSON_VARIANTS; i++) {
+                                                requests.add(json(base, smallSearch(random)));
+                                        }
+                                }
+                                case "export" -> {
+                                        for (int i = 0; i < JSON_VARIANTS; i++) {
+                                                requests.add(json(base + "/export", smallSearch(random)));
+                                        }
+                                }
+                                case "upload-csv" -> requests.add(multipart(base + "/upload/csv", "invoices.csv", csv(uploadRows, random)));
+                                case "upload-xlsx" -> requests.add(multipart(base + "/upload", "invoices.xlsx", xlsx(uploadRows, random)));
+                                default -> throw new IllegalArgumentException("Unknown workload " + entry.getKey() + ".");
+                        }
+                        workloads.add(new Workload(entry.getKey(), entry.getValue(), List.copyOf(requests), new Samples()));
+                }
+                return workloads;
+        }
+
+        private static String smallSearch(Random random) {
+                StringBuilder invoices = new StringBuilder();
+                for (int i = 0; i < 14; i++) {
+                        invoices.append(i == 0 ? "" : ",")
+                                .append("{\"id\": \"INV-").append(i).append("\", \"amount\": ")
+                                .append(10 + random.nextInt(190)).append('.').append(random.nextInt(100)).append('}');
+                }
+                return "{\"target\": 400, \"maxInvoices\": 4, \"invoices\": [" + invoices + "]}";
+        }
+
+        // Amounts start at 100 and the target is 250, so the search over a large upload stays cheap.
+        private static byte[] csv(int rows, Random random) {
+                StringBuilder csv = new StringBuilder("Invoice ID,Amount\n");
+                for (int i = 0; i < rows; i++) {
+                        csv.append("INV-").append(i).append(',').append(100 + random.nextInt(10_000)).append('\n');
+                }
+                return csv.toString().getBytes(StandardCharsets.UTF_8);
+        }
+
+        private static byte[] xlsx(int rows, Random random) throws IOException {
+                try (SXSSFWorkbook workbook = new SXSSFWorkbook();
+                     ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+                        var sheet = workbook.createSheet("Invoices");
+                        var header = sheet.createRow(0);
+                        header.createCell(0).setCellValue("Invoice ID");
+                        header.createCell(1).setCellValue("Amount");
+                        for (int i = 0; i < rows; i++) {
+                                var row = sheet.createRow(i + 1);
+                                row.createCell(0).setCellValue("INV-" + i);
+                                row.createCell(1).setCellValue(100 + random.nextInt(10_000));
+                        }
+                        workbook.write(outputStream);
+                        return outputStream.toByteArray();
+                }
+        }
+
+        private static HttpRequest json(String uri, String body) {
+                return HttpRequest.newBuilder(URI.create(uri))
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+        }
+
+        private static HttpRequest multipart(String uri, String filename, byte[] file) {
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                body.writeBytes(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"target\"\r\n\r\n250\r\n"
+                        + "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
+                        + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                body.writeBytes(file);
+                body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+                return HttpRequest.newBuilder(URI.create(uri))
+                        .timeout(Duration.ofSeconds(60))
+                        .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                        .build();
+        }
+
+        private static boolean send(HttpClient client, HttpRequest request) {
+                try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        return response.statusCode() / 100 == 2;
+                } catch (IOException exception) {
+                        return false;
+                } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                }
+        }
+
+        private static Workload pick(List<Workload> workloads, int totalWeight) {
+                int value = ThreadLocalRandom.current().nextInt(totalWeight);
+                for (Workload workload : workloads) {
+                        value -= workload.weight();
+                        if (value < 0) {
+                                return workload;
+                        }
+                }
+                return workloads.get(workloads.size() - 1);
+        }
+
+        private static String row(String name, Samples samples, double seconds) {
+                long[] latencies = samples.sortedLatencies();
+                return String.format(Locale.ROOT, "%-12s %9d %7d %6.2f%% %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                        name,
+                        samples.count(),
+                        samples.errors(),
+                        samples.count() == 0 ? 0.0 : 100.0 * samples.errors() / samples.count(),
+                        samples.count() / seconds,
+                        percentile(latencies, 0.50),
+                        percentile(latencies, 0.95),
+                        percentile(latencies, 0.99),
+                        percentile(latencies, 1.0));
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+                if (sorted.length == 0) {
+                        return 0;
+                }
+                int index = (int) Math.ceil(quantile * sorted.length) - 1;
+                return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        private static long gcCount() {
+                return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                        .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                        .filter(count -> count > 0)
+                        .sum();
+        }
+
+        private static long gcMillis() {
+                return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                        .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                        .filter(time -> time > 0)
+                        .sum();
+        }
+
+        private static long megabytes(long bytes) {
+                return bytes / (1024 * 1024);
+        }
+
+        private record Workload(String name, int weight, List<HttpRequest> requests, Samples samples) {
+
+                HttpRequest request() {
+                        return requests.get(ThreadLocalRandom.current().nextInt(requests.size()));
+                }
+        }
+
+        private static final class Samples {
+
+                private long[] latencies = new long[1024];
+                private int count;
+                private long errors;
+
+                synchronized void add(long latencyNanos, boolean success) {
+                        if (count == latencies.length) {
+                                latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = latencyNanos;
+                        if (!success) {
+                                errors++;
+                        }
+                }
+
+                synchronized void addAll(Samples other) {
+                        long[] otherLatencies = other.sortedLatencies();
+                        for (long latency : otherLatencies) {
+                                add(latency, true);
+                        }
+                        errors += other.errors();
+                }
+
+                synchronized long[] sortedLatencies() {
+                        long[] sorted = Arrays.copyOf(latencies, count);
+                        Arrays.sort(sorted);
+                        return sorted;
+                }
+
+                synchronized int count() {
+                        return count;
+                }
+
+                synchronized long errors() {
+                        return errors;
+                }
+        }
+}
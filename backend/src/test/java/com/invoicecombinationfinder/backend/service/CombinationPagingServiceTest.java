@@ -0,0 +1,109 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CombinationPagingServiceTest {
+
+        private final CombinationService combinationService = new CombinationService();
+        private final CombinationPagingService pagingService = new CombinationPagingService(combinationService, 2);
+
+        @Test
+        void pagesThroughTheSameCombinationsAsAFullSearch() {
+                BigDecimal target = new BigDecimal("20");
+                List<InvoiceInput> invoices = List.of(
+                        invoice("INV-1", "2"),
+                        invoice("INV-2", "3"),
+                        invoice("INV-3", "5"),
+                        invoice("INV-4", "7"),
+                        invoice("INV-5", "8"),
+                        invoice("INV-6", "10"),
+                        invoice("INV-7", "13")
+                );
+                List<List<String>> expected = combinationService.findCombinations(target, invoices, CombinationFilters.empty())
+                        .combinations();
+
+                List<List<String>> paged = new ArrayList<>();
+                CombinationPage page = pagingService.firstPage(target, invoices, CombinationFilters.empty(), 2);
+                paged.addAll(page.combinations());
+                while (page.nextCursor() != null) {
+                        page = pagingService.nextPage(page.nextCursor(), 2);
+                        paged.addAll(page.combinations());
+                }
+
+                assertEquals(expected, paged);
+        }
+
+        @Test
+        void pageOnlyReportsAmountsOfInvoicesItContains() {
+                List<InvoiceInput> invoices = List.of(
+                        invoice("INV-1", "5"),
+                        invoice("INV-2", "10"),
+                        invoice("INV-3", "15"),
+                        invoice("INV-4", "40")
+                );
+
+                CombinationPage page = pagingService.firstPage(new BigDecimal("15"), invoices, CombinationFilters.empty(), 1);
+
+                assertEquals(List.of(List.of("INV-1", "INV-2")), page.combinations());
+                assertEquals(List.of("INV-1", "INV-2"), List.copyOf(page.invoiceById().keySet()));
+                assertNotNull(page.nextCursor());
+        }
+
+        @Test
+        void returnsNoCursorOnceTheSearchIsExhausted() {
+                List<InvoiceInput> invoices = List.of(invoice("INV-1", "5"), invoice("INV-2", "10"));
+
+                CombinationPage page = pagingService.firstPage(new BigDecimal("15"), invoices, CombinationFilters.empty(), 10);
+
+                assertEquals(1, page.combinations().size());
+                assertNull(page.nextCursor());
+        }
+
+        @Test
+        void cursorCanOnlyBeRedeemedOnce() {
+                List<InvoiceInput> invoices = List.of(invoice("INV-1", "5"), invoice("INV-2", "5"), invoice("INV-3", "5"));
+                CombinationPage page = pagingService.firstPage(new BigDecimal("10"), invoices, CombinationFilters.empty(), 1);
+
+                pagingService.nextPage(page.nextCursor(), 1);
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> pagingService.nextPage(page.nextCursor(), 1));
+                assertEquals("Unknown or expired cursor.", exception.getMessage());
+        }
+
+        @Test
+        void evictsLeastRecentlyUsedCursorsBeyondCapacity() {
+                List<InvoiceInput> invoices = List.of(invoice("INV-1", "5"), invoice("INV-2", "5"), invoice("INV-3", "5"));
+                BigDecimal target = new BigDecimal("10");
+
+                String oldest = pagingService.firstPage(target, invoices, CombinationFilters.empty(), 1).nextCursor();
+                pagingService.firstPage(target, invoices, CombinationFilters.empty(), 1);
+                pagingService.firstPage(target, invoices, CombinationFilters.empty(), 1);
+
+                assertThrows(IllegalArgumentException.class, () -> pagingService.nextPage(oldest, 1));
+        }
+
+        @Test
+        void throwsWhenPageSizeIsNotPositive() {
+                List<InvoiceInput> invoices = List.of(invoice("INV-1", "5"));
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> pagingService.firstPage(new BigDecimal("5"), invoices, CombinationFilters.empty(), 0));
+
+                assertEquals("Page size must be greater than zero.", exception.getMessage());
+        }
+
+        private InvoiceInput invoice(String id, String amount) {
+                return new InvoiceInput(id, new BigDecimal(amount));
+        }
+}
@@ -171,6 +171,46 @@ class CombinationServiceTest {
                 assertEquals("One or more required invoice ids are not present in the invoice list.", exception.getMessage());
         }
 
+        @Test
+        void partitionsTogetherCoverTheFullSearch() {
+                BigDecimal target = new BigDecimal("25");
+                List<InvoiceInput> invoices = List.of(
+                        invoice("INV-1", "3"),
+                        invoice("INV-2", "5"),
+                        invoice("INV-3", "7"),
+                        invoice("INV-4", "8"),
+                        invoice("INV-5", "10"),
+                        invoice("INV-6", "12"),
+                        invoice("INV-7", "15"),
+                        invoice("INV-8", "17")
+                );
+                CombinationFilters filters = new CombinationFilters(2, 4, java.util.Set.of("INV-4"));
+                List<List<String>> expected = combinationService.findCombinations(target, invoices, filters).combinations();
+
+                java.util.Set<List<String>> partitioned = new java.util.HashSet<>();
+                int total = 0;
+                for (long mask = 0; mask < 8; mask++) {
+                        PartitionResult partition = combinationService.findPartitionCombinations(target, invoices, filters,
+                                new SearchPartition(3, mask));
+                        partitioned.addAll(partition.combinations());
+                        total += partition.combinations().size();
+                }
+
+                assertEquals(expected.size(), total);
+                assertEquals(java.util.Set.copyOf(expected), partitioned);
+        }
+
+        @Test
+        void throwsWhenPartitionPrefixExceedsInvoices() {
+                List<InvoiceInput> invoices = List.of(invoice("INV-1", "15"));
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> combinationService.findPartitionCombinations(new BigDecimal("15"), invoices,
+                                CombinationFilters.empty(), new SearchPartition(2, 0)));
+
+                assertEquals("Partition prefix is longer than the invoice list.", exception.getMessage());
+        }
+
         private InvoiceInput invoice(String id, String amount) {
                 return new InvoiceInput(id, new BigDecimal(amount));
         }
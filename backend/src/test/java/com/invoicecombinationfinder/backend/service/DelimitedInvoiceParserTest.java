@@ -0,0 +1,114 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DelimitedInvoiceParserTest {
+
+        private final DelimitedInvoiceParser parser = new DelimitedInvoiceParser();
+
+        @Test
+        void parsesCsvWithHeaderAndQuotedFields() {
+                MockMultipartFile file = file("invoices.csv", """
+                        \uFEFFInvoice ID,Amount,Customer
+                        INV-1,15.50,"Acme, Inc."
+                        "INV ""2""\",20
+
+                        INV-3 , 0.05 ,
+                        """);
+
+                List<InvoiceInput> invoices = parser.parse(file, null, '.');
+
+                assertEquals(List.of(new InvoiceInput("INV-1", new BigDecimal("15.50")),
+                        new InvoiceInput("INV \"2\"", new BigDecimal("20")),
+                        new InvoiceInput("INV-3", new BigDecimal("0.05"))), invoices);
+        }
+
+        @Test
+        void infersTabsForTsvAndHonoursDecimalComma() {
+                MockMultipartFile file = file("invoices.tsv", "INV-1\t1234,5\r\nINV-2\t7\r\n");
+
+                List<InvoiceInput> invoices = parser.parse(file, null, ',');
+
+                assertEquals(List.of(new InvoiceInput("INV-1", new BigDecimal("1234.5")), new InvoiceInput("INV-2", new BigDecimal("7"))),
+                        invoices);
+        }
+
+        @Test
+        void supportsCustomDelimiters() throws IOException {
+                List<InvoiceInput> invoices = parser.parse(new StringReader("id;amount\nINV-1;3,25"), ';', ',');
+
+                assertEquals(List.of(new InvoiceInput("INV-1", new BigDecimal("3.25"))), invoices);
+        }
+
+        @Test
+        void reportsInvalidAmountsWithRowNumbers() {
+                assertMessage("Invalid amount at row 3: 12.5.0", "id,amount\nINV-1,1\nINV-2,12.5.0\n");
+                assertMessage("Invalid amount at row 1: 99999999999999999999", "INV-1,99999999999999999999\n");
+                assertMessage("Each data row must contain both an invoice id and amount.", "INV-1,\n");
+                assertMessage("Unterminated quoted field at row 1.", "\"INV-1,5\n");
+                assertMessage("No invoice rows were detected in the file.", "Invoice,Amount\n\n");
+        }
+
+        @Test
+        void readsLargeInputsInChunks() throws IOException {
+                int rows = 200_000;
+                Reader reader = new Reader() {
+                        private int row;
+                        private String pending = "";
+
+                        @Override
+                        public int read(char[] buffer, int offset, int length) {
+                                if (pending.isEmpty()) {
+                                        if (row == rows) {
+                                                return -1;
+                                        }
+                                        pending = "INV-" + row + "," + (row % 1000 + 1) + ".25\n";
+                                        row++;
+                                }
+                                int count = Math.min(length, pending.length());
+                                pending.getChars(0, count, buffer, offset);
+                                pending = pending.substring(count);
+                                return count;
+                        }
+
+                        @Override
+                        public void close() {
+                        }
+                };
+
+                List<InvoiceInput> invoices = parser.parse(reader, ',', '.');
+
+                assertEquals(rows, invoices.size());
+                assertEquals(new InvoiceInput("INV-199999", new BigDecimal("1000.25")), invoices.get(rows - 1));
+        }
+
+        @Test
+        void rejectsUnsupportedFiles() {
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                        parser.parse(file("invoices.xlsx", "INV-1,1"), null, '.'));
+
+                assertEquals("Only .csv, .tsv and .txt files are supported.", exception.getMessage());
+        }
+
+        private void assertMessage(String expected, String content) {
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                        parser.parse(file("invoices.csv", content), null, '.'));
+                assertEquals(expected, exception.getMessage());
+        }
+
+        private MockMultipartFile file(String name, String content) {
+                return new MockMultipartFile("file", name, "text/csv", content.getBytes(StandardCharsets.UTF_8));
+        }
+}
@@ -0,0 +1,174 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.InvoiceCombinationFinderApplication;
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DistributedCombinationServiceTest {
+
+        private static final List<ConfigurableApplicationContext> workers = new ArrayList<>();
+        private static final List<String> workerUrls = new ArrayList<>();
+
+        private final CombinationService combinationService = new CombinationService();
+
+        @BeforeAll
+        static void startWorkers() {
+                for (int i = 0; i < 3; i++) {
+                        ConfigurableApplicationContext worker = new SpringApplicationBuilder(InvoiceCombinationFinderApplication.class)
+                                .run("--server.port=0", "--spring.main.banner-mode=off");
+                        workers.add(worker);
+                        int port = ((WebServerApplicationContext) worker).getWebServer().getPort();
+                        workerUrls.add("http://localhost:" + port);
+                }
+        }
+
+        @AfterAll
+        static void stopWorkers() {
+                workers.forEach(ConfigurableApplicationContext::close);
+        }
+
+        @Test
+        void mergesWorkerPartitionsIntoTheFullResult() {
+                DistributedCombinationService coordinator = coordinator(String.join(",", workerUrls), 3);
+                List<InvoiceInput> invoices = randomInvoices(18);
+                BigDecimal target = new BigDecimal("60");
+                CombinationFilters filters = new CombinationFilters(2, 5, Set.of());
+
+                try {
+                        DistributedCombinationResult result = coordinator.findCombinations(target, invoices, filters);
+
+                        assertEquals(combinationService.findCombinations(target, invoices, filters).combinations(), result.combinations());
+                        assertEquals(8, result.partitionCount());
+                        assertEquals(Set.copyOf(workerUrls), result.partitionsByWorker().keySet());
+                        assertTrue(result.nodesVisited() > 0);
+                } finally {
+                        coordinator.shutdown();
+                }
+        }
+
+        @Test
+        void retriesPartitionsOfUnreachableWorkersElsewhere() {
+                DistributedCombinationService coordinator = coordinator("http://localhost:1," + workerUrls.get(0), 2);
+                List<InvoiceInput> invoices = randomInvoices(12);
+                BigDecimal target = new BigDecimal("40");
+
+                try {
+                        DistributedCombinationResult result = coordinator.findCombinations(target, invoices, CombinationFilters.empty());
+
+                        assertEquals(combinationService.findCombinations(target, invoices, CombinationFilters.empty()).combinations(),
+                                result.combinations());
+                        assertEquals(4, result.partitionsByWorker().get(workerUrls.get(0)));
+                } finally {
+                        coordinator.shutdown();
+                }
+        }
+
+        @Test
+        void reportsProgressForEveryPartition() {
+                DistributedCombinationService coordinator = coordinator(String.join(",", workerUrls), 3);
+                List<InvoiceInput> invoices = randomInvoices(14);
+                BigDecimal target = new BigDecimal("45");
+                List<DistributedSearchProgress> progress = new ArrayList<>();
+
+                try {
+                        DistributedCombinationResult result = coordinator.findCombinations(target, invoices, CombinationFilters.empty(),
+                                progress::add);
+
+                        assertEquals(8, progress.size());
+                        for (int i = 0; i < progress.size(); i++) {
+                                assertEquals(i + 1, progress.get(i).completedPartitions());
+                                assertEquals(8, progress.get(i).partitionCount());
+                        }
+                        assertEquals(8, progress.stream().map(DistributedSearchProgress::partition).distinct().count());
+                        DistributedSearchProgress last = progress.get(progress.size() - 1);
+                        assertEquals(result.combinations().size(), last.combinationsFound());
+                        assertEquals(result.nodesVisited(), last.nodesVisited());
+                } finally {
+                        coordinator.shutdown();
+                }
+        }
+
+        @Test
+        void settlesPartitionsWhosePrefixExceedsTheTargetOnTheCoordinator() {
+                DistributedCombinationService coordinator = coordinator(workerUrls.get(0), 2);
+                List<InvoiceInput> invoices = List.of(new InvoiceInput("INV-1", new BigDecimal("6")),
+                        new InvoiceInput("INV-2", new BigDecimal("7")),
+                        new InvoiceInput("INV-3", new BigDecimal("3")),
+                        new InvoiceInput("INV-4", new BigDecimal("4")));
+                BigDecimal target = new BigDecimal("6");
+
+                try {
+                        DistributedCombinationResult result = coordinator.findCombinations(target, invoices, CombinationFilters.empty());
+
+                        assertEquals(List.of(List.of("INV-1")), result.combinations());
+                        assertEquals(Map.of(DistributedCombinationService.LOCAL_WORKER, 1, workerUrls.get(0), 3), result.partitionsByWorker());
+                } finally {
+                        coordinator.shutdown();
+                }
+        }
+
+        @Test
+        void settlesPartitionsWhoseSuffixCannotReachTheTarget() {
+                DistributedCombinationService coordinator = coordinator("", 4);
+                List<InvoiceInput> invoices = List.of(new InvoiceInput("A", new BigDecimal("100")),
+                        new InvoiceInput("B", new BigDecimal("50")));
+
+                try {
+                        DistributedCombinationResult result = coordinator.findCombinations(new BigDecimal("150"), invoices,
+                                CombinationFilters.empty());
+
+                        assertEquals(List.of(List.of("B", "A")), result.combinations());
+                        assertEquals(Map.of(DistributedCombinationService.LOCAL_WORKER, 4), result.partitionsByWorker());
+                } finally {
+                        coordinator.shutdown();
+                }
+        }
+
+        @Test
+        void searchesLocallyWithoutWorkers() {
+                DistributedCombinationService coordinator = coordinator("", 2);
+                List<InvoiceInput> invoices = randomInvoices(10);
+                BigDecimal target = new BigDecimal("30");
+
+                try {
+                        DistributedCombinationResult result = coordinator.findCombinations(target, invoices, CombinationFilters.empty());
+
+                        assertEquals(combinationService.findCombinations(target, invoices, CombinationFilters.empty()).combinations(),
+                                result.combinations());
+                        assertEquals(Set.of(DistributedCombinationService.LOCAL_WORKER), result.partitionsByWorker().keySet());
+                } finally {
+                        coordinator.shutdown();
+                }
+        }
+
+        private DistributedCombinationService coordinator(String workers, int prefixLength) {
+                return new DistributedCombinationService(combinationService, RestClient.builder(), workers, prefixLength, 4,
+                        Duration.ofSeconds(30));
+        }
+
+        private List<InvoiceInput> randomInvoices(int count) {
+                Random random = new Random(count);
+                List<InvoiceInput> invoices = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                        invoices.add(new InvoiceInput("INV-" + i, new BigDecimal(1 + random.nextInt(25))));
+                }
+                return invoices;
+        }
+}
@@ -0,0 +1,152 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExcelUploadServiceTest {
+
+        private final ExcelUploadService uploadService = new ExcelUploadService(new ExcelInvoiceParser(), 2,
+                DataSize.ofMegabytes(16), DataSize.ofMegabytes(64));
+
+        @AfterEach
+        void shutdown() {
+                uploadService.shutdown();
+        }
+
+        @Test
+        void mergesFilesInUploadOrderAndReportsEachFile() throws IOException {
+                MultipartFile north = workbook("north.xlsx", Map.of("North", new String[][]{
+                        {"Invoice ID", "Amount"}, {"N-1", "10"}, {"N-2", "20"}}));
+                MultipartFile south = workbook("south.xlsx", Map.of("South", new String[][]{{"S-1", "5.5"}}));
+
+                ParsedUpload upload = uploadService.parse(List.of(north, south), null);
+
+                assertEquals(List.of("N-1", "N-2", "S-1"), upload.invoices().stream().map(InvoiceInput::id).toList());
+                assertEquals(new BigDecimal("5.5"), upload.invoices().get(2).amount());
+                assertEquals(2, upload.files().size());
+                assertEquals("north.xlsx", upload.files().get(0).filename());
+                assertEquals(List.of("North"), upload.files().get(0).sheets());
+                assertEquals(2, upload.files().get(0).invoiceCount());
+                assertTrue(upload.files().get(1).parseMillis() >= 0);
+        }
+
+        @Test
+        void readsSelectedOrAllSheets() throws IOException {
+                Map<String, String[][]> sheets = new LinkedHashMap<>();
+                sheets.put("North", new String[][]{{"N-1", "10"}});
+                sheets.put("Notes", new String[][]{});
+                sheets.put("South", new String[][]{{"S-1", "20"}});
+                MultipartFile regions = workbook("regions.xlsx", sheets);
+
+                assertEquals(List.of("S-1"), ids(uploadService.parse(List.of(regions), List.of("South"))));
+                assertEquals(List.of("N-1", "S-1"), ids(uploadService.parse(List.of(regions), List.of(ExcelInvoiceParser.ALL_SHEETS))));
+                assertEquals(List.of("North", "South"),
+                        uploadService.parse(List.of(regions), List.of("*")).files().get(0).sheets());
+                assertEquals(List.of("N-1"), ids(uploadService.parse(List.of(regions), List.of())));
+        }
+
+        @Test
+        void rejectsDuplicateIdsAcrossFiles() throws IOException {
+                MultipartFile north = workbook("north.xlsx", Map.of("North", new String[][]{{"INV-1", "10"}}));
+                MultipartFile south = workbook("south.xlsx", Map.of("South", new String[][]{{"INV-2", "5"}, {"INV-1", "7"}}));
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                        uploadService.parse(List.of(north, south), null));
+
+                assertEquals("Invoice INV-1 appears in both north.xlsx (North) and south.xlsx (South).", exception.getMessage());
+        }
+
+        @Test
+        void namesTheFailingFile() throws IOException {
+                MultipartFile valid = workbook("valid.xlsx", Map.of("Invoices", new String[][]{{"INV-1", "10"}}));
+                MultipartFile broken = workbook("broken.xlsx", Map.of("Invoices", new String[][]{{"INV-2", "ten"}}));
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                        uploadService.parse(List.of(valid, broken), null));
+
+                assertEquals("broken.xlsx: Invalid amount at row 1: ten", exception.getMessage());
+        }
+
+        @Test
+        void rejectsSheetSelectionsThatMatchNothing() throws IOException {
+                MultipartFile file = workbook("invoices.xlsx", Map.of("Invoices", new String[][]{{"INV-1", "10"}}));
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                        uploadService.parse(List.of(file), List.of("Missing")));
+
+                assertEquals("The Excel file does not contain the selected sheets: Missing.", exception.getMessage());
+        }
+
+        @Test
+        void listsSelectedSheetsThatAreMissingEvenWhenOthersMatch() throws IOException {
+                Map<String, String[][]> sheets = new LinkedHashMap<>();
+                sheets.put("North", new String[][]{{"N-1", "10"}});
+                sheets.put("South", new String[][]{{"S-1", "20"}});
+                MultipartFile regions = workbook("regions.xlsx", sheets);
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                        uploadService.parse(List.of(regions), List.of("West", "South", "East")));
+
+                assertEquals("The Excel file does not contain the selected sheets: West, East.", exception.getMessage());
+        }
+
+        @Test
+        void rejectsWorkbooksOverTheSizeLimits() throws IOException {
+                MultipartFile north = workbook("north.xlsx", Map.of("North", new String[][]{{"N-1", "10"}}));
+                MultipartFile south = workbook("south.xlsx", Map.of("South", new String[][]{{"S-1", "20"}, {"S-2", "30"}}));
+                ExcelUploadService limitedService = new ExcelUploadService(new ExcelInvoiceParser(), 1,
+                        DataSize.ofBytes(north.getSize()), DataSize.ofBytes(north.getSize() * 3 / 2));
+                try {
+                        assertEquals(List.of("N-1"), ids(limitedService.parse(List.of(north), null)));
+
+                        IllegalArgumentException tooLarge = assertThrows(IllegalArgumentException.class, () ->
+                                limitedService.parse(List.of(south), null));
+                        IllegalArgumentException tooMany = assertThrows(IllegalArgumentException.class, () ->
+                                limitedService.parse(List.of(north, north), null));
+
+                        assertTrue(tooLarge.getMessage().startsWith("south.xlsx is larger than the "));
+                        assertTrue(tooMany.getMessage().startsWith("The uploaded workbooks are larger than the "));
+                } finally {
+                        limitedService.shutdown();
+                }
+        }
+
+        private List<String> ids(ParsedUpload upload) {
+                return upload.invoices().stream().map(InvoiceInput::id).toList();
+        }
+
+        private MultipartFile workbook(String filename, Map<String, String[][]> sheets) throws IOException {
+                try (var workbook = new XSSFWorkbook();
+                     var outputStream = new ByteArrayOutputStream()) {
+                        sheets.forEach((name, rows) -> {
+                                var sheet = workbook.createSheet(name);
+                                for (int i = 0; i < rows.length; i++) {
+                                        var row = sheet.createRow(i);
+                                        for (int j = 0; j < rows[i].length; j++) {
+                                                row.createCell(j).setCellValue(rows[i][j]);
+                                        }
+                                }
+                        });
+                        workbook.write(outputStream);
+                        return new MockMultipartFile("file", filename,
+                                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+                                outputStream.toByteArray());
+                }
+        }
+}
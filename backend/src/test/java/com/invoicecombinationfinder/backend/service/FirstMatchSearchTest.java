@@ -0,0 +1,118 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FirstMatchSearchTest {
+
+        private final CombinationService combinationService = new CombinationService();
+
+        @Test
+        void findsAMatchWheneverOneExists() {
+                Random random = new Random(11);
+                for (int round = 0; round < 60; round++) {
+                        List<InvoiceInput> invoices = new ArrayList<>();
+                        int count = 1 + random.nextInt(12);
+                        for (int i = 0; i < count; i++) {
+                                invoices.add(invoice("INV-" + i, (1 + random.nextInt(2000)) / 100.0 + ""));
+                        }
+                        BigDecimal target = new BigDecimal(5 + random.nextInt(30));
+                        Integer maximum = random.nextBoolean() ? null : 2 + random.nextInt(4);
+                        CombinationFilters filters = new CombinationFilters(1 + random.nextInt(2), maximum,
+                                random.nextBoolean() ? Set.of() : Set.of("INV-0"));
+                        List<List<String>> all = combinationService.findCombinations(target, invoices, filters).combinations();
+
+                        FirstMatchResult result = combinationService.findFirstCombination(target, invoices, filters, Duration.ofSeconds(5));
+
+                        if (all.isEmpty()) {
+                                assertFalse(result.foundWithinBudget());
+                                assertTrue(result.noMatchExists());
+                                assertNull(result.combination());
+                        } else {
+                                assertTrue(result.foundWithinBudget());
+                                assertTrue(all.contains(result.combination()), "unexpected combination " + result.combination());
+                        }
+                }
+        }
+
+        @Test
+        void prefersLargeAmounts() {
+                FirstMatchResult result = combinationService.findFirstCombination(new BigDecimal("100"),
+                        List.of(invoice("INV-1", "10"), invoice("INV-2", "20"), invoice("INV-3", "30"),
+                                invoice("INV-4", "40"), invoice("INV-5", "60")),
+                        CombinationFilters.empty(),
+                        Duration.ofSeconds(1));
+
+                assertEquals(List.of("INV-4", "INV-5"), result.combination());
+                assertEquals(new BigDecimal("60"), result.invoiceById().get("INV-5").amount());
+                assertEquals(2, result.invoiceById().size());
+        }
+
+        @Test
+        void keepsRequiredInvoicesAndCountLimits() {
+                FirstMatchResult result = combinationService.findFirstCombination(new BigDecimal("100"),
+                        List.of(invoice("INV-1", "10"), invoice("INV-2", "20"), invoice("INV-3", "30"),
+                                invoice("INV-4", "40"), invoice("INV-5", "60")),
+                        new CombinationFilters(3, 3, Set.of("INV-1")),
+                        Duration.ofSeconds(1));
+
+                assertEquals(List.of("INV-1", "INV-3", "INV-5"), result.combination());
+        }
+
+        @Test
+        void stopsAtTheTimeBudget() {
+                // Even amounts can never reach an odd target, and 60 invoices are far too many to rule that out by search.
+                List<InvoiceInput> invoices = new ArrayList<>();
+                for (int i = 0; i < 60; i++) {
+                        invoices.add(invoice("INV-" + i, String.valueOf(2 * (i + 1000))));
+                }
+
+                FirstMatchResult result = combinationService.findFirstCombination(new BigDecimal("30001"),
+                        invoices,
+                        CombinationFilters.empty(),
+                        Duration.ofMillis(100));
+
+                assertFalse(result.foundWithinBudget());
+                assertFalse(result.noMatchExists());
+                assertTrue(result.elapsedMillis() < 5_000);
+        }
+
+        @Test
+        void reportsAMatchCompletedOnTheLastAllowedNode() {
+                // Greedy takes 6 and gets stuck; depth-first then needs exactly three nodes (6, 5, 5) to reach 10.
+                PreparedSearch search = combinationService.prepare(BigDecimal.TEN,
+                        List.of(invoice("INV-1", "6"), invoice("INV-2", "5"), invoice("INV-3", "5")),
+                        CombinationFilters.empty());
+                ScaledAmounts scaled = ScaledAmounts.of(search.target(), search.invoices());
+                FirstMatchSearch firstMatchSearch = new FirstMatchSearch(search, scaled, new Random(1), System.nanoTime() - 1, 3);
+
+                assertArrayEquals(new int[] {0, 1}, firstMatchSearch.run());
+        }
+
+        @Test
+        void rejectsNonPositiveBudgets() {
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                        combinationService.findFirstCombination(BigDecimal.TEN, List.of(invoice("INV-1", "10")),
+                                CombinationFilters.empty(), Duration.ZERO));
+
+                assertEquals("Time budget must be greater than zero.", exception.getMessage());
+        }
+
+        private InvoiceInput invoice(String id, String amount) {
+                return new InvoiceInput(id, new BigDecimal(amount));
+        }
+}
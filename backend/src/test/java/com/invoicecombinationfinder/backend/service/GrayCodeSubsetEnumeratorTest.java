@@ -0,0 +1,108 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrayCodeSubsetEnumeratorTest {
+
+        private final CombinationService combinationService = new CombinationService();
+
+        @Test
+        void matchesBacktrackingOnRandomInputs() {
+                Random random = new Random(3);
+                for (int round = 0; round < 40; round++) {
+                        List<InvoiceInput> invoices = new ArrayList<>();
+                        int count = 1 + random.nextInt(14);
+                        for (int i = 0; i < count; i++) {
+                                invoices.add(invoice("INV-" + i, (1 + random.nextInt(2000)) / 100.0 + ""));
+                        }
+                        BigDecimal target = new BigDecimal(5 + random.nextInt(30));
+                        Integer maximum = random.nextBoolean() ? null : 2 + random.nextInt(4);
+                        CombinationFilters filters = new CombinationFilters(1 + random.nextInt(2), maximum,
+                                random.nextBoolean() ? Set.of() : Set.of("INV-0"));
+                        PreparedSearch search = combinationService.prepare(target, invoices, filters);
+
+                        GrayCodeSubsetEnumerator enumerator = GrayCodeSubsetEnumerator.forSearch(search);
+
+                        assertNotNull(enumerator);
+                        assertEquals(new CombinationSearch(search).next(Integer.MAX_VALUE), enumerator.enumerate());
+                }
+        }
+
+        @Test
+        void scalesMixedDecimalAmounts() {
+                PreparedSearch search = combinationService.prepare(new BigDecimal("10.5"),
+                        List.of(invoice("INV-1", "4"), invoice("INV-2", "6.50"), invoice("INV-3", "5.25"), invoice("INV-4", "5.250")),
+                        CombinationFilters.empty());
+
+                assertEquals(List.of(List.of("INV-1", "INV-2"), List.of("INV-3", "INV-4")),
+                        GrayCodeSubsetEnumerator.forSearch(search).enumerate());
+        }
+
+        @Test
+        void leavesSparseSearchesToBacktracking() {
+                List<InvoiceInput> invoices = new ArrayList<>();
+                for (int i = 0; i < 17; i++) {
+                        invoices.add(invoice("INV-" + i, String.valueOf(i + 1)));
+                }
+                GrayCodeSubsetEnumerator enumerator = GrayCodeSubsetEnumerator.forSearch(
+                        combinationService.prepare(new BigDecimal("40"), invoices, CombinationFilters.empty()));
+
+                assertFalse(enumerator.isCheaperThan(() -> new SearchEstimate(17, 8, 1_000, 10)));
+                assertTrue(enumerator.isCheaperThan(() -> new SearchEstimate(17, 8, 100_000, 10)));
+        }
+
+        @Test
+        void enumeratesSmallListsWithoutEstimating() {
+                GrayCodeSubsetEnumerator enumerator = GrayCodeSubsetEnumerator.forSearch(combinationService.prepare(BigDecimal.TEN,
+                        List.of(invoice("INV-1", "4"), invoice("INV-2", "6")), CombinationFilters.empty()));
+
+                assertTrue(enumerator.isCheaperThan(() -> {
+                        throw new AssertionError("Small lists should not be estimated");
+                }));
+        }
+
+        @Test
+        void declinesLargeLists() {
+                List<InvoiceInput> invoices = new ArrayList<>();
+                for (int i = 0; i <= GrayCodeSubsetEnumerator.MAX_INVOICES; i++) {
+                        invoices.add(invoice("INV-" + i, "1"));
+                }
+
+                assertNull(GrayCodeSubsetEnumerator.forSearch(combinationService.prepare(BigDecimal.TEN, invoices, CombinationFilters.empty())));
+        }
+
+        @Test
+        void declinesAmountsThatDoNotFitScaledLongs() {
+                PreparedSearch search = combinationService.prepare(new BigDecimal("1"),
+                        List.of(invoice("INV-1", "1"), invoice("INV-2", "92233720368547758.07")),
+                        CombinationFilters.empty());
+
+                assertNull(GrayCodeSubsetEnumerator.forSearch(search));
+        }
+
+        @Test
+        void declinesRequiredIdsThatAppearTwice() {
+                PreparedSearch search = combinationService.prepare(new BigDecimal("5"),
+                        List.of(invoice("INV-1", "5"), invoice("INV-1", "5")),
+                        new CombinationFilters(null, null, Set.of("INV-1")));
+
+                assertNull(GrayCodeSubsetEnumerator.forSearch(search));
+        }
+
+        private InvoiceInput invoice(String id, String amount) {
+                return new InvoiceInput(id, new BigDecimal(amount));
+        }
+}
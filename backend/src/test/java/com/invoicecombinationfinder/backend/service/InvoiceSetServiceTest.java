@@ -0,0 +1,122 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InvoiceSetServiceTest {
+
+        private final CombinationService combinationService = new CombinationService();
+        private final InvoiceSetService invoiceSetService = new InvoiceSetService(combinationService, 4);
+
+        @Test
+        void addsCombinationsThatUseNewInvoices() {
+                String setId = invoiceSetService.register(List.of(
+                        invoice("INV-1", "5"),
+                        invoice("INV-2", "10"),
+                        invoice("INV-3", "7")
+                )).id();
+                BigDecimal target = new BigDecimal("15");
+                assertEquals(List.of(List.of("INV-1", "INV-2")),
+                        invoiceSetService.findCombinations(setId, target, CombinationFilters.empty()).combinations());
+
+                InvoiceSetSummary summary = invoiceSetService.addInvoices(setId, List.of(invoice("INV-4", "8"), invoice("INV-5", "3")));
+
+                assertEquals(5, summary.invoiceCount());
+                assertEquals(List.of(List.of("INV-5", "INV-1", "INV-3"), List.of("INV-1", "INV-2"), List.of("INV-3", "INV-4")),
+                        invoiceSetService.findCombinations(setId, target, CombinationFilters.empty()).combinations());
+        }
+
+        @Test
+        void dropsCombinationsThatUseRemovedInvoices() {
+                String setId = invoiceSetService.register(List.of(
+                        invoice("INV-1", "5"),
+                        invoice("INV-2", "10"),
+                        invoice("INV-3", "7"),
+                        invoice("INV-4", "8")
+                )).id();
+                BigDecimal target = new BigDecimal("15");
+                invoiceSetService.findCombinations(setId, target, CombinationFilters.empty());
+
+                invoiceSetService.removeInvoices(setId, List.of("INV-4"));
+
+                CombinationResult result = invoiceSetService.findCombinations(setId, target, CombinationFilters.empty());
+                assertEquals(List.of(List.of("INV-1", "INV-2")), result.combinations());
+                assertEquals(Set.of("INV-1", "INV-2", "INV-3"), result.invoiceById().keySet());
+        }
+
+        @Test
+        void incrementalResultsMatchAFullSearch() {
+                Random random = new Random(42);
+                List<InvoiceInput> invoices = new ArrayList<>();
+                for (int i = 0; i < 14; i++) {
+                        invoices.add(invoice("INV-" + i, String.valueOf(1 + random.nextInt(20))));
+                }
+                String setId = invoiceSetService.register(invoices).id();
+                BigDecimal target = new BigDecimal("30");
+                List<CombinationFilters> filters = List.of(
+                        CombinationFilters.empty(),
+                        new CombinationFilters(2, 3, Set.of()),
+                        new CombinationFilters(null, 4, Set.of("INV-3"))
+                );
+                filters.forEach(filter -> invoiceSetService.findCombinations(setId, target, filter));
+
+                int nextId = 14;
+                for (int round = 0; round < 6; round++) {
+                        List<InvoiceInput> added = new ArrayList<>();
+                        for (int i = 0; i < 1 + random.nextInt(3); i++) {
+                                added.add(invoice("INV-" + nextId++, String.valueOf(1 + random.nextInt(20))));
+                        }
+                        invoiceSetService.addInvoices(setId, added);
+                        invoices.addAll(added);
+
+                        InvoiceInput removed = invoices.remove(4 + random.nextInt(invoices.size() - 4));
+                        invoiceSetService.removeInvoices(setId, List.of(removed.id()));
+
+                        for (CombinationFilters filter : filters) {
+                                assertEquals(combinationService.findCombinations(target, invoices, filter).combinations(),
+                                        invoiceSetService.findCombinations(setId, target, filter).combinations());
+                        }
+                }
+        }
+
+        @Test
+        void rejectsDuplicateInvoiceIds() {
+                String setId = invoiceSetService.register(List.of(invoice("INV-1", "5"))).id();
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> invoiceSetService.addInvoices(setId, List.of(invoice("INV-1", "7"))));
+
+                assertEquals("Invoice INV-1 is already part of the invoice set.", exception.getMessage());
+        }
+
+        @Test
+        void rejectsRemovalOfUnknownInvoice() {
+                String setId = invoiceSetService.register(List.of(invoice("INV-1", "5"))).id();
+
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> invoiceSetService.removeInvoices(setId, List.of("INV-9")));
+
+                assertEquals("Invoice INV-9 is not part of the invoice set.", exception.getMessage());
+        }
+
+        @Test
+        void throwsForUnknownSet() {
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                        () -> invoiceSetService.findCombinations("missing", BigDecimal.TEN, CombinationFilters.empty()));
+
+                assertEquals("Unknown invoice set.", exception.getMessage());
+        }
+
+        private InvoiceInput invoice(String id, String amount) {
+                return new InvoiceInput(id, new BigDecimal(amount));
+        }
+}
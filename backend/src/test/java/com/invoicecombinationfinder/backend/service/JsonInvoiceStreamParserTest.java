@@ -0,0 +1,103 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonInvoiceStreamParserTest {
+
+        private final JsonInvoiceStreamParser parser = new JsonInvoiceStreamParser();
+
+        @Test
+        void readsRequestFieldsInAnyOrder() {
+                StreamedCombinationRequest request = parse("""
+                        {
+                          "invoices": [
+                            {"amount": 12.50, "id": " INV-1 ", "note": {"ignored": [1, 2]}},
+                            {"id": "INV-2", "amount": "7.5"}
+                          ],
+                          "unknown": [true],
+                          "maxInvoices": 2,
+                          "requiredInvoiceIds": ["INV-1", " INV-1"],
+                          "target": 20
+                        }
+                        """);
+
+                assertEquals(new BigDecimal("20"), request.target());
+                assertEquals(List.of(new InvoiceInput("INV-1", new BigDecimal("12.50")), new InvoiceInput("INV-2", new BigDecimal("7.5"))),
+                        request.invoices());
+                assertEquals(new CombinationFilters(null, 2, Set.of("INV-1")), request.filters());
+        }
+
+        @Test
+        void streamedRequestsFindTheSameCombinations() {
+                CombinationService combinationService = new CombinationService();
+                StreamedCombinationRequest request = parse("""
+                        {"target": 150, "invoices": [
+                          {"id": "INV-001", "amount": 100}, {"id": "INV-002", "amount": 200},
+                          {"id": "INV-003", "amount": 50}, {"id": "INV-004", "amount": 100}
+                        ]}
+                        """);
+
+                assertEquals(combinationService.findCombinations(request.target(), request.invoices(), request.filters()).combinations(),
+                        combinationService.findCombinations(request).combinations());
+        }
+
+        @Test
+        void failsFastWithTheOffendingIndex() {
+                assertMessage("Invoice at index 2: id is required.", """
+                        {"target": 10, "invoices": [{"id": "A", "amount": 1}, {"id": "B", "amount": 2}, {"amount": 3}]}
+                        """);
+                assertMessage("Invoice at index 0: amount must be a number.", """
+                        {"target": 10, "invoices": [{"id": "A", "amount": "ten"}]}
+                        """);
+                assertMessage("Invoice at index 1: must be a JSON object.", """
+                        {"target": 10, "invoices": [{"id": "A", "amount": 1}, 5]}
+                        """);
+        }
+
+        @Test
+        void validatesRequestLevelFields() {
+                assertMessage("Target amount is required.", """
+                        {"invoices": [{"id": "A", "amount": 1}]}
+                        """);
+                assertMessage("Target amount must be greater than zero.", """
+                        {"target": 0, "invoices": [{"id": "A", "amount": 1}]}
+                        """);
+                assertMessage("At least one invoice is required.", """
+                        {"target": 1, "invoices": []}
+                        """);
+                assertMessage("Minimum invoice count must be greater than zero.", """
+                        {"target": 1, "minInvoices": 0, "invoices": [{"id": "A", "amount": 1}]}
+                        """);
+                assertMessage("Required invoice ids cannot be blank.", """
+                        {"target": 1, "requiredInvoiceIds": [" "], "invoices": [{"id": "A", "amount": 1}]}
+                        """);
+        }
+
+        @Test
+        void rejectsMalformedJson() {
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () ->
+                        parse("{\"target\": 10, \"invoices\": [{\"id\": \"A\", \"amount\": 1}"));
+
+                assertTrue(exception.getMessage().startsWith("Malformed JSON: "));
+        }
+
+        private void assertMessage(String expected, String json) {
+                IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> parse(json));
+                assertEquals(expected, exception.getMessage());
+        }
+
+        private StreamedCombinationRequest parse(String json) {
+                return parser.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        }
+}
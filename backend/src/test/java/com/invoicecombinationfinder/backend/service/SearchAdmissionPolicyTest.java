@@ -0,0 +1,178 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import com.invoicecombinationfinder.backend.exception.SearchBudgetExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchAdmissionPolicyTest {
+
+        private final CombinationService combinationService = new CombinationService();
+
+        @Test
+        void estimatesExactSizeOfTreeWithoutBranchingChoices() {
+                PreparedSearch search = combinationService.prepare(new BigDecimal("3"),
+                        List.of(invoice("INV-1", "1"), invoice("INV-2", "2"), invoice("INV-3", "5")),
+                        CombinationFilters.empty());
+
+                SearchEstimate estimate = SearchCostEstimator.estimate(search, 200, new Random(7));
+
+                // Nodes: {1}, {2}, {1,2}; the only combination is {1,2}.
+                assertEquals(3, estimate.invoiceCount());
+                assertEquals(2, estimate.maxCombinationSize());
+                assertEquals(3.0, estimate.estimatedNodes(), 1.0);
+                assertTrue(estimate.estimatedCombinations() > 0);
+        }
+
+        @Test
+        void estimateTracksActualNodeCount() {
+                PreparedSearch search = combinationService.prepare(new BigDecimal("40"), invoices(16), CombinationFilters.empty());
+                CombinationSearch combinationSearch = new CombinationSearch(search);
+                int combinations = combinationSearch.next(Integer.MAX_VALUE).size();
+
+                SearchEstimate estimate = SearchCostEstimator.estimate(search, 4000, new Random(11));
+
+                assertEquals(combinationSearch.nodesVisited(), estimate.estimatedNodes(), combinationSearch.nodesVisited() * 0.25);
+                assertEquals(combinations, estimate.estimatedCombinations(), combinations * 0.5);
+        }
+
+        @Test
+        void rejectsSearchesOverBudget() {
+                CombinationService service = new CombinationService(policy("reject"));
+
+                SearchBudgetExceededException exception = assertThrows(SearchBudgetExceededException.class,
+                        () -> service.findCombinations(new BigDecimal("40"), invoices(16), CombinationFilters.empty()));
+
+                assertTrue(exception.getEstimate().estimatedNodes() > 100);
+        }
+
+        @Test
+        void limitsSearchesOverBudgetAndMarksThemTruncated() {
+                CombinationService service = new CombinationService(policy("limit"));
+
+                CombinationResult result = service.findCombinations(new BigDecimal("40"), invoices(16), CombinationFilters.empty());
+
+                assertTrue(result.truncated());
+                assertTrue(result.combinations().size()
+                        < combinationService.findCombinations(new BigDecimal("40"), invoices(16), CombinationFilters.empty()).combinations().size());
+        }
+
+        @Test
+        void limitsPartitionSearches() {
+                CombinationService service = new CombinationService(policy("limit"));
+
+                PartitionResult result = service.findPartitionCombinations(new BigDecimal("40"), invoices(16),
+                        CombinationFilters.empty(), new SearchPartition(0, 0));
+
+                assertTrue(result.truncated());
+                assertTrue(result.nodesVisited() <= 100);
+        }
+
+        @Test
+        void limitsPagedSearchesAcrossPages() {
+                CombinationPagingService pagingService = new CombinationPagingService(new CombinationService(policy("limit")), 4);
+
+                CombinationPage page = pagingService.firstPage(new BigDecimal("40"), invoices(16), CombinationFilters.empty(), 1);
+                int pages = 1;
+                while (page.nextCursor() != null) {
+                        page = pagingService.nextPage(page.nextCursor(), 1);
+                        pages++;
+                }
+
+                assertTrue(page.truncated());
+                assertTrue(pages < combinationService.findCombinations(new BigDecimal("40"), invoices(16), CombinationFilters.empty())
+                        .combinations().size());
+        }
+
+        @Test
+        void doesNotCacheTruncatedInvoiceSetResults() {
+                InvoiceSetService invoiceSetService = new InvoiceSetService(new CombinationService(policy("limit")), 4);
+                String setId = invoiceSetService.register(invoices(16)).id();
+
+                assertTrue(invoiceSetService.findCombinations(setId, new BigDecimal("40"), CombinationFilters.empty()).truncated());
+                assertTrue(invoiceSetService.findCombinations(setId, new BigDecimal("40"), CombinationFilters.empty()).truncated());
+        }
+
+        @Test
+        void rejectsPagedSearchesOverBudget() {
+                CombinationPagingService pagingService = new CombinationPagingService(new CombinationService(policy("reject")), 4);
+
+                assertThrows(SearchBudgetExceededException.class,
+                        () -> pagingService.firstPage(new BigDecimal("40"), invoices(16), CombinationFilters.empty(), 10));
+        }
+
+        @Test
+        void runsSearchesWithinBudgetUnrestricted() {
+                CombinationService service = new CombinationService(policy("reject"));
+
+                CombinationResult result = service.findCombinations(new BigDecimal("15"),
+                        List.of(invoice("INV-1", "5"), invoice("INV-2", "10")), CombinationFilters.empty());
+
+                assertFalse(result.truncated());
+                assertEquals(1, result.combinations().size());
+        }
+
+        @Test
+        void queuesSearchesOverBudget() {
+                SearchAdmissionPolicy policy = policy("queue");
+                PreparedSearch search = combinationService.prepare(new BigDecimal("40"), invoices(16), CombinationFilters.empty());
+
+                try (SearchAdmissionPolicy.Admission admission = policy.admit(search)) {
+                        assertEquals(Long.MAX_VALUE, admission.nodeBudget());
+                        assertThrows(SearchBudgetExceededException.class, () -> policy.admit(search));
+                }
+                policy.admit(search).close();
+        }
+
+        @Test
+        void keepsTheCursorOfAPageThatTimedOutInTheQueue() {
+                SearchAdmissionPolicy policy = policy("queue");
+                CombinationPagingService pagingService = new CombinationPagingService(new CombinationService(policy), 4);
+                PreparedSearch search = combinationService.prepare(new BigDecimal("40"), invoices(16), CombinationFilters.empty());
+
+                CombinationPage first = pagingService.firstPage(new BigDecimal("40"), invoices(16), CombinationFilters.empty(), 1);
+                try (SearchAdmissionPolicy.Admission ignored = policy.admit(search)) {
+                        assertThrows(SearchBudgetExceededException.class, () -> pagingService.nextPage(first.nextCursor(), 1));
+                }
+                CombinationPage second = pagingService.nextPage(first.nextCursor(), 1);
+
+                assertEquals(1, second.combinations().size());
+                assertNotEquals(first.combinations(), second.combinations());
+        }
+
+        @Test
+        void reportsDecisionForDryRun() {
+                SearchAssessment assessment = new CombinationService(policy("queue"))
+                        .assess(new BigDecimal("40"), invoices(16), CombinationFilters.empty());
+
+                assertEquals(AdmissionDecision.QUEUE, assessment.decision());
+        }
+
+        private SearchAdmissionPolicy policy(String mode) {
+                return new SearchAdmissionPolicy(100, mode, 100, 1, Duration.ofMillis(10), 64);
+        }
+
+        private List<InvoiceInput> invoices(int count) {
+                Random random = new Random(count);
+                List<InvoiceInput> invoices = new ArrayList<>();
+                for (int i = 0; i < count; i++) {
+                        invoices.add(invoice("INV-" + i, String.valueOf(1 + random.nextInt(15))));
+                }
+                return invoices;
+        }
+
+        private InvoiceInput invoice(String id, String amount) {
+                return new InvoiceInput(id, new BigDecimal(amount));
+        }
+}
@@ -0,0 +1,199 @@
+package com.invoicecombinationfinder.backend.service;
+
+import com.invoicecombinationfinder.backend.dto.InvoiceInput;
+import com.invoicecombinationfinder.backend.exception.SearchBudgetExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchCoalescerTest {
+
+        private final SearchCoalescer coalescer = new SearchCoalescer();
+        private final ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        @AfterEach
+        void tearDown() {
+                callers.shutdownNow();
+                coalescer.shutdown();
+        }
+
+        @Test
+        void concurrentIdenticalSearchesShareOneComputation() throws Exception {
+                CountDownLatch release = new CountDownLatch(1);
+                AtomicInteger computations = new AtomicInteger();
+                CombinationResult expected = new CombinationResult(List.of(List.of("INV-1")), Map.of());
+
+                Future<CombinationResult> first = callers.submit(() -> coalescer.execute("key", () -> {
+                        computations.incrementAndGet();
+                        await(release);
+                        return expected;
+                }));
+                waitUntil(() -> coalescer.inFlightCount() == 1);
+                List<CompletableFuture<CombinationResult>> others = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                        others.add(coalescer.submit("key", () -> {
+                                computations.incrementAndGet();
+                                return expected;
+                        }));
+                }
+                release.countDown();
+
+                assertSame(expected, first.get(5, TimeUnit.SECONDS));
+                for (CompletableFuture<CombinationResult> other : others) {
+                        assertSame(expected, other.get(5, TimeUnit.SECONDS));
+                }
+                assertEquals(1, computations.get());
+                assertEquals(0, coalescer.inFlightCount());
+        }
+
+        @Test
+        void remainingWaitersStillReceiveResultWhenOneLeaves() throws Exception {
+                CountDownLatch release = new CountDownLatch(1);
+                CombinationResult expected = new CombinationResult(List.of(), Map.of());
+
+                CompletableFuture<CombinationResult> leaving = coalescer.submit("key", () -> {
+                        await(release);
+                        return expected;
+                });
+                CompletableFuture<CombinationResult> staying = coalescer.submit("key", () -> {
+                        throw new AssertionError("Duplicate search should not run");
+                });
+
+                leaving.cancel(true);
+                release.countDown();
+
+                assertSame(expected, staying.get(5, TimeUnit.SECONDS));
+                assertTrue(leaving.isCancelled());
+        }
+
+        @Test
+        void cancelsComputationWhenLastWaiterLeaves() throws Exception {
+                CountDownLatch started = new CountDownLatch(1);
+                CountDownLatch interrupted = new CountDownLatch(1);
+
+                Future<CombinationResult> waiter = callers.submit(() -> coalescer.execute("key", () -> {
+                        started.countDown();
+                        try {
+                                new CountDownLatch(1).await();
+                        } catch (InterruptedException exception) {
+                                interrupted.countDown();
+                        }
+                        return null;
+                }));
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+
+                waiter.cancel(true);
+
+                assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+                assertEquals(0, coalescer.inFlightCount());
+        }
+
+        @Test
+        void propagatesFailuresToAllWaiters() throws Exception {
+                CountDownLatch release = new CountDownLatch(1);
+
+                Future<CombinationResult> first = callers.submit(() -> coalescer.execute("key", () -> {
+                        await(release);
+                        throw new IllegalArgumentException("boom");
+                }));
+                waitUntil(() -> coalescer.inFlightCount() == 1);
+                CompletableFuture<CombinationResult> second = coalescer.submit("key", () -> {
+                        throw new AssertionError("Duplicate search should not run");
+                });
+                release.countDown();
+
+                ExecutionException firstFailure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+                ExecutionException secondFailure = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalArgumentException.class, firstFailure.getCause());
+                assertEquals("boom", firstFailure.getCause().getMessage());
+                assertSame(firstFailure.getCause(), secondFailure.getCause());
+        }
+
+        @Test
+        void turnsSearchesAwayWhenThreadsAndQueueAreFull() throws Exception {
+                SearchCoalescer saturated = new SearchCoalescer(1, 1);
+                CountDownLatch release = new CountDownLatch(1);
+                CombinationResult expected = new CombinationResult(List.of(), Map.of());
+                try {
+                        CompletableFuture<CombinationResult> running = saturated.submit("running", () -> {
+                                await(release);
+                                return expected;
+                        });
+                        CompletableFuture<CombinationResult> queued = saturated.submit("queued", () -> expected);
+                        CompletableFuture<CombinationResult> rejected = saturated.submit("rejected", () -> expected);
+                        CompletableFuture<CombinationResult> joined = saturated.submit("running", () -> {
+                                throw new AssertionError("Duplicate search should not run");
+                        });
+
+                        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+                        SearchBudgetExceededException exception = assertInstanceOf(SearchBudgetExceededException.class, failure.getCause());
+                        assertEquals(Duration.ofSeconds(1), exception.getRetryAfter());
+                        assertEquals(2, saturated.inFlightCount());
+
+                        release.countDown();
+                        assertSame(expected, running.get(5, TimeUnit.SECONDS));
+                        assertSame(expected, joined.get(5, TimeUnit.SECONDS));
+                        assertSame(expected, queued.get(5, TimeUnit.SECONDS));
+                } finally {
+                        saturated.shutdown();
+                }
+        }
+
+        @Test
+        void keyIgnoresInvoiceOrderButNotFilters() {
+                CombinationService combinationService = new CombinationService();
+                List<InvoiceInput> invoices = List.of(invoice("INV-1", "5"), invoice("INV-2", "10"));
+                List<InvoiceInput> reordered = List.of(invoice("INV-2", "10"), invoice(" INV-1 ", "5"));
+
+                String key = SearchCoalescer.key(combinationService.prepare(new BigDecimal("15"), invoices, CombinationFilters.empty()));
+
+                assertEquals(key, SearchCoalescer.key(combinationService.prepare(new BigDecimal("15.00"), reordered, CombinationFilters.empty())));
+                assertNotEquals(key, SearchCoalescer.key(combinationService.prepare(new BigDecimal("15"), invoices,
+                        new CombinationFilters(null, null, Set.of("INV-1")))));
+                assertNotEquals(key, SearchCoalescer.key(combinationService.prepare(new BigDecimal("15"), invoices,
+                        new CombinationFilters(null, 1, Set.of()))));
+        }
+
+        private InvoiceInput invoice(String id, String amount) {
+                return new InvoiceInput(id, new BigDecimal(amount));
+        }
+
+        private static void await(CountDownLatch latch) {
+                try {
+                        latch.await();
+                } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                }
+        }
+
+        private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (!condition.getAsBoolean()) {
+                        if (System.nanoTime() > deadline) {
+                                throw new AssertionError("Condition not met in time");
+                        }
+                        Thread.sleep(5);
+                }
+        }
+}